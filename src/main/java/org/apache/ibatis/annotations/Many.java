@@ -47,4 +47,23 @@ public @interface Many {
    */
   FetchType fetchType() default FetchType.DEFAULT;
 
+  /**
+   * Returns the statement id that retrieves collections for multiple keys at once.
+   * <p>
+   * The statement receives the keys as a {@code list} parameter and is used instead of {@link #select()}
+   * when the {@code nestedSelectBatchSize} setting is enabled.
+   *
+   * @return the statement id
+   * @since 3.5.4
+   */
+  String batchSelect() default "";
+
+  /**
+   * Returns the property of the {@link #batchSelect()} results that holds the key.
+   *
+   * @return the property name
+   * @since 3.5.4
+   */
+  String batchKey() default "";
+
 }
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
@@ -82,6 +83,8 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsStream()) {
+          result = executeForStream(sqlSession, args);
         } else {
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -169,6 +172,18 @@ public class MapperMethod {
     return result;
   }
 
+  private <T> Stream<T> executeForStream(SqlSession sqlSession, Object[] args) {
+    Stream<T> result;
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      result = sqlSession.selectStream(command.getName(), param, rowBounds);
+    } else {
+      result = sqlSession.selectStream(command.getName(), param);
+    }
+    return result;
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -278,6 +293,7 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsStream;
     private final boolean returnsOptional;
     private final Class<?> returnType;
     private final String mapKey;
@@ -297,6 +313,7 @@ public class MapperMethod {
       this.returnsVoid = void.class.equals(this.returnType);
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsStream = Stream.class.equals(this.returnType);
       this.returnsOptional = Optional.class.equals(this.returnType);
       this.mapKey = getMapKey(method);
       this.returnsMap = this.mapKey != null;
@@ -349,6 +366,15 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    /**
+     * return whether return type is {@code java.util.stream.Stream}.
+     * @return return {@code true}, if return type is {@code java.util.stream.Stream}
+     * @since 3.5.4
+     */
+    public boolean returnsStream() {
+      return returnsStream;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}.
      * @return return {@code true}, if return type is {@code java.util.Optional}
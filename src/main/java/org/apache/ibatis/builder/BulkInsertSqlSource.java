@@ -0,0 +1,200 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Rewrites a single-row {@code INSERT ... VALUES (...)} statement into a multi-row
+ * {@code INSERT ... VALUES (...), (...)} statement for a collection of parameter objects.
+ * <p>
+ * The wrapped {@link SqlSource} is rendered once per element, the {@code VALUES} tuples are joined and
+ * the value of every placeholder is bound as an additional parameter of the resulting {@link BoundSql}.
+ *
+ * @since 3.5.4
+ */
+public class BulkInsertSqlSource implements SqlSource {
+
+  private static final String BULK_PARAMETER_PREFIX = "__bulk_";
+
+  private final Configuration configuration;
+  private final SqlSource sqlSource;
+
+  public BulkInsertSqlSource(Configuration configuration, SqlSource sqlSource) {
+    this.configuration = configuration;
+    this.sqlSource = sqlSource;
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    final Collection<?> elements = elementsOf(parameterObject);
+    final List<ParameterMapping> parameterMappings = new ArrayList<>();
+    final Map<String, Object> parameterValues = new LinkedHashMap<>();
+    final StringBuilder sql = new StringBuilder();
+    String firstSql = null;
+    int[] tuple = null;
+    for (Object element : elements) {
+      final BoundSql boundSql = sqlSource.getBoundSql(element);
+      if (firstSql == null) {
+        firstSql = boundSql.getSql();
+        tuple = findValuesTuple(firstSql);
+        sql.append(firstSql, 0, tuple[1]);
+      } else if (firstSql.equals(boundSql.getSql())) {
+        sql.append(", ").append(firstSql, tuple[0], tuple[1]);
+      } else {
+        throw new BuilderException("Every element of a bulk insert must produce the same SQL, but found '"
+            + firstSql + "' and '" + boundSql.getSql() + "'.");
+      }
+      for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+        final String property = BULK_PARAMETER_PREFIX + parameterMappings.size();
+        parameterMappings.add(new ParameterMapping.Builder(configuration, property, parameterMapping.getTypeHandler())
+            .javaType(parameterMapping.getJavaType())
+            .jdbcType(parameterMapping.getJdbcType())
+            .jdbcTypeName(parameterMapping.getJdbcTypeName())
+            .numericScale(parameterMapping.getNumericScale())
+            .mode(parameterMapping.getMode())
+            .build());
+        parameterValues.put(property, getParameterValue(boundSql, parameterMapping, element));
+      }
+    }
+    final BoundSql bulkBoundSql = new BoundSql(configuration, sql.toString(), parameterMappings, parameterObject);
+    parameterValues.forEach(bulkBoundSql::setAdditionalParameter);
+    return bulkBoundSql;
+  }
+
+  private Collection<?> elementsOf(Object parameterObject) {
+    if (parameterObject instanceof Map && ((Map<?, ?>) parameterObject).containsKey("collection")) {
+      return (Collection<?>) ((Map<?, ?>) parameterObject).get("collection");
+    } else if (parameterObject instanceof Collection) {
+      return (Collection<?>) parameterObject;
+    } else if (parameterObject == null) {
+      return Collections.emptyList();
+    }
+    throw new BuilderException("A bulk insert requires a collection parameter, but found " + parameterObject.getClass().getName() + ".");
+  }
+
+  private Object getParameterValue(BoundSql boundSql, ParameterMapping parameterMapping, Object element) {
+    // same lookup order as DefaultParameterHandler
+    final String propertyName = parameterMapping.getProperty();
+    final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    if (boundSql.hasAdditionalParameter(propertyName)) {
+      return boundSql.getAdditionalParameter(propertyName);
+    } else if (element == null) {
+      return null;
+    } else if (typeHandlerRegistry.hasTypeHandler(element.getClass())) {
+      return element;
+    } else {
+      MetaObject metaObject = configuration.newMetaObject(element);
+      return metaObject.getValue(propertyName);
+    }
+  }
+
+  /**
+   * Returns the start (inclusive) and end (exclusive) offsets of the parenthesized tuple that follows the
+   * {@code VALUES} keyword.
+   */
+  static int[] findValuesTuple(String sql) {
+    final int length = sql.length();
+    int depth = 0;
+    int i = 0;
+    while (i < length) {
+      final char c = sql.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(sql, i);
+        continue;
+      }
+      if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isValuesKeyword(sql, i)) {
+        int start = i + 6;
+        while (start < length && Character.isWhitespace(sql.charAt(start))) {
+          start++;
+        }
+        if (start == length || sql.charAt(start) != '(') {
+          break;
+        }
+        final int end = findClosingParenthesis(sql, start);
+        int rest = end;
+        while (rest < length && (Character.isWhitespace(sql.charAt(rest)) || sql.charAt(rest) == ';')) {
+          rest++;
+        }
+        if (rest != length) {
+          throw new BuilderException("A bulk insert cannot rewrite SQL with clauses after the VALUES tuple: " + sql);
+        }
+        return new int[] { start, end };
+      }
+      i++;
+    }
+    throw new BuilderException("A bulk insert requires an 'INSERT ... VALUES (...)' statement, but found: " + sql);
+  }
+
+  private static boolean isValuesKeyword(String sql, int index) {
+    return sql.regionMatches(true, index, "VALUES", 0, 6)
+        && (index == 0 || !Character.isJavaIdentifierPart(sql.charAt(index - 1)))
+        && (index + 6 == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(index + 6)));
+  }
+
+  private static int findClosingParenthesis(String sql, int open) {
+    int depth = 0;
+    int i = open;
+    while (i < sql.length()) {
+      final char c = sql.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        i = skipQuoted(sql, i);
+        continue;
+      }
+      if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i + 1;
+      }
+      i++;
+    }
+    throw new BuilderException("Unbalanced parentheses in VALUES clause: " + sql);
+  }
+
+  private static int skipQuoted(String sql, int open) {
+    final char quote = sql.charAt(open);
+    int i = open + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == quote) {
+        // a doubled quote is an escaped quote
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+
+}
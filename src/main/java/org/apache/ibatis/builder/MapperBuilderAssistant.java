@@ -425,6 +425,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
    * @param resultSet
    * @param foreignColumn
    * @param lazy
+   * @param batchSelect
+   * @param batchKey
    * @return
    */
   public ResultMapping buildResultMapping(
@@ -441,7 +443,9 @@ public class MapperBuilderAssistant extends BaseBuilder {
       List<ResultFlag> flags,
       String resultSet,
       String foreignColumn,
-      boolean lazy) {
+      boolean lazy,
+      String batchSelect,
+      String batchKey) {
     Class<?> javaTypeClass = resolveResultJavaType(resultType, property, javaType);
     TypeHandler<?> typeHandlerInstance = resolveTypeHandler(javaTypeClass, typeHandler);
     List<ResultMapping> composites;
@@ -462,6 +466,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .columnPrefix(columnPrefix)
         .foreignColumn(foreignColumn)
         .lazy(lazy)
+        .nestedBatchQueryId(applyCurrentNamespace(batchSelect, true))
+        .batchKey(batchKey)
         .build();
   }
 
@@ -529,6 +535,15 @@ public class MapperBuilderAssistant extends BaseBuilder {
   }
 
   /** Backward compatibility signature. */
+  public ResultMapping buildResultMapping(Class<?> resultType, String property, String column, Class<?> javaType,
+      JdbcType jdbcType, String nestedSelect, String nestedResultMap, String notNullColumn, String columnPrefix,
+      Class<? extends TypeHandler<?>> typeHandler, List<ResultFlag> flags, String resultSet, String foreignColumn,
+      boolean lazy) {
+    return buildResultMapping(
+      resultType, property, column, javaType, jdbcType, nestedSelect,
+      nestedResultMap, notNullColumn, columnPrefix, typeHandler, flags, resultSet, foreignColumn, lazy, null, null);
+  }
+
   public ResultMapping buildResultMapping(Class<?> resultType, String property, String column, Class<?> javaType,
       JdbcType jdbcType, String nestedSelect, String nestedResultMap, String notNullColumn, String columnPrefix,
       Class<? extends TypeHandler<?>> typeHandler, List<ResultFlag> flags) {
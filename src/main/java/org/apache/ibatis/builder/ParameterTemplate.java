@@ -0,0 +1,210 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * A "#{}" placeholder parsed once, when the mapper is loaded. It builds the {@link ParameterMapping} of the placeholder
+ * for a given parameter type without parsing the placeholder again, and caches the mappings it has built.
+ *
+ * "#{}" 占位符的预编译结果：在加载映射文件时解析一次占位符中定义的属性，
+ * 执行时根据实参类型创建对应的 ParameterMapping 对象，并缓存创建结果
+ *
+ * @since 3.5.4
+ */
+public class ParameterTemplate {
+
+  private static final String PARAMETER_PROPERTIES = "javaType,jdbcType,mode,numericScale,resultMap,typeHandler,jdbcTypeName";
+  // 每个占位符最多缓存的重命名结果个数，即 <foreach> 中能复用 ParameterMapping 的元素个数
+  private static final int MAX_RENAMED = 4096;
+
+  // 占位符中的原始内容，例如 "id, jdbcType=INTEGER"
+  private final String content;
+  private final String property;
+  private final Map<String, String> attributes;
+  private final BuilderException parseFailure;
+  // 参数类型 -> 属性类型，只缓存不依赖 DynamicContext.bindings 的结果
+  private final Map<Class<?>, Class<?>> propertyTypes = new ConcurrentHashMap<>();
+  // 属性类型 -> ParameterMapping
+  private final Map<Class<?>, ParameterMapping> parameterMappings = new ConcurrentHashMap<>();
+  // 新的属性名 -> 重命名后的占位符，避免 <foreach> 每次迭代都重新创建 ParameterTemplate 及其 ParameterMapping
+  private final Map<String, ParameterTemplate> renamed = new ConcurrentHashMap<>();
+
+  public ParameterTemplate(String content) {
+    Map<String, String> parsed = null;
+    BuilderException failure = null;
+    try {
+      parsed = new ParameterExpression(content);
+    } catch (BuilderException ex) {
+      failure = ex;
+    } catch (Exception ex) {
+      failure = new BuilderException("Parsing error was found in mapping #{" + content + "}.  Check syntax #{property|(expression), var1=value1, var2=value2, ...} ", ex);
+    }
+    this.content = content;
+    this.property = parsed == null ? null : parsed.get("property");
+    this.attributes = parsed == null ? Collections.emptyMap() : parsed;
+    this.parseFailure = failure;
+  }
+
+  private ParameterTemplate(ParameterTemplate template, String content, String property) {
+    this.content = content;
+    this.property = property;
+    this.attributes = template.attributes;
+    this.parseFailure = template.parseFailure;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * Returns a template whose property is renamed when it refers to the given foreach item (or index) name,
+   * e.g. {@code item.name} to {@code __frch_item_0.name}; returns this template otherwise.
+   *
+   * @param name the name to rename
+   * @param newName the new name
+   * @return the renamed template, or this template if the property does not refer to the name
+   */
+  public ParameterTemplate rename(String name, String newName) {
+    if (property == null || name == null || !property.startsWith(name)
+        || property.length() != name.length() && property.charAt(name.length()) != '.') {
+      return this;
+    }
+    ParameterTemplate template = renamed.get(newName);
+    if (template == null) {
+      template = newTemplate(name, newName);
+      if (renamed.size() < MAX_RENAMED) {
+        renamed.put(newName, template);
+      }
+    }
+    return template;
+  }
+
+  private ParameterTemplate newTemplate(String name, String newName) {
+    String newProperty = newName + property.substring(name.length());
+    int start = content.indexOf(property);
+    String newContent = content.substring(0, start) + newProperty + content.substring(start + property.length());
+    return new ParameterTemplate(this, newContent, newProperty);
+  }
+
+  /**
+   * Builds the parameter mapping of the placeholder.
+   *
+   * @param configuration the configuration
+   * @param parameterType the type of the parameter object
+   * @param metaParameters the additional parameters, e.g. the bindings of the dynamic context
+   * @return the parameter mapping
+   */
+  public ParameterMapping build(Configuration configuration, Class<?> parameterType, MetaObject metaParameters) {
+    if (parseFailure != null) {
+      throw parseFailure;
+    }
+    Class<?> propertyType;
+    if (property != null && metaParameters.hasGetter(property)) { // issue #448 get type from additional params
+      propertyType = metaParameters.getGetterType(property);
+    } else {
+      propertyType = propertyTypes.computeIfAbsent(parameterType, type -> resolvePropertyType(configuration, type));
+    }
+    ParameterMapping parameterMapping = parameterMappings.get(propertyType);
+    if (parameterMapping == null) {
+      parameterMapping = new Resolver(configuration).buildParameterMapping(propertyType);
+      parameterMappings.put(propertyType, parameterMapping);
+    }
+    return parameterMapping;
+  }
+
+  private Class<?> resolvePropertyType(Configuration configuration, Class<?> parameterType) {
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType)) {
+      return parameterType;
+    } else if (JdbcType.CURSOR.name().equals(attributes.get("jdbcType"))) {
+      return java.sql.ResultSet.class;
+    } else if (property == null || Map.class.isAssignableFrom(parameterType)) {
+      return Object.class;
+    } else {
+      MetaClass metaClass = MetaClass.forClass(parameterType, configuration.getReflectorFactory());
+      if (metaClass.hasGetter(property)) {
+        return metaClass.getGetterType(property);
+      } else {
+        return Object.class;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "#{" + content + "}";
+  }
+
+  private class Resolver extends BaseBuilder {
+
+    Resolver(Configuration configuration) {
+      super(configuration);
+    }
+
+    ParameterMapping buildParameterMapping(Class<?> propertyType) {
+      // 创建 ParameterMapping 的建造者，并设置 ParameterMapping 相关配置
+      ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
+      Class<?> javaType = propertyType;
+      String typeHandlerAlias = null;
+      for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        String name = entry.getKey();
+        String value = entry.getValue();
+        if ("javaType".equals(name)) {
+          javaType = resolveClass(value);
+          builder.javaType(javaType);
+        } else if ("jdbcType".equals(name)) {
+          builder.jdbcType(resolveJdbcType(value));
+        } else if ("mode".equals(name)) {
+          builder.mode(resolveParameterMode(value));
+        } else if ("numericScale".equals(name)) {
+          builder.numericScale(Integer.valueOf(value));
+        } else if ("resultMap".equals(name)) {
+          builder.resultMapId(value);
+        } else if ("typeHandler".equals(name)) {
+          typeHandlerAlias = value;
+        } else if ("jdbcTypeName".equals(name)) {
+          builder.jdbcTypeName(value);
+        } else if ("property".equals(name)) {
+          // Do Nothing
+        } else if ("expression".equals(name)) {
+          throw new BuilderException("Expression based parameters are not supported yet");
+        } else {
+          throw new BuilderException("An invalid property '" + name + "' was found in mapping #{" + content + "}.  Valid properties are " + PARAMETER_PROPERTIES);
+        }
+      }
+      // 获取 TypeHandler 对象
+      if (typeHandlerAlias != null) {
+        builder.typeHandler(resolveTypeHandler(javaType, typeHandlerAlias));
+      }
+      // 如果没有指定 TypeHandler, 则会在 build() 方法中，根据 javaType 和 jdbcType 从 TypeHandlerRegistry 中获取对应的 TypeHandler 对象
+      return builder.build();
+    }
+  }
+
+}
@@ -23,10 +23,8 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.parsing.TokenHandler;
-import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.type.JdbcType;
 
 /**
  * 在经过 SqlNode.apply() 方法的解析之后， SQL 语句会被传递到 SqlSourceBuilder 进行进一步的解析。
@@ -38,8 +36,6 @@ import org.apache.ibatis.type.JdbcType;
  */
 public class SqlSourceBuilder extends BaseBuilder {
 
-  private static final String PARAMETER_PROPERTIES = "javaType,jdbcType,mode,numericScale,resultMap,typeHandler,jdbcTypeName";
-
   public SqlSourceBuilder(Configuration configuration) {
     super(configuration);
   }
@@ -83,85 +79,10 @@ public class SqlSourceBuilder extends BaseBuilder {
     @Override
     public String handleToken(String content) {
       // 创建一个 ParameterMapping 对象，并添加到 parameterMappings 集合中保存
-      parameterMappings.add(buildParameterMapping(content));
+      // ParameterTemplate 负责解析参数属性并创建 ParameterMapping 对象
+      parameterMappings.add(new ParameterTemplate(content).build(configuration, parameterType, metaParameters));
       return "?"; // 返回 ？ 占位符
     }
-
-    /**
-     * 解析参数属性，参数是 sql ？占位符 实参的属性
-     * @param content
-     * @return
-     */
-    private ParameterMapping buildParameterMapping(String content) {
-      // 解析参数的属性，并形成 Map 例如 #{_frc_item_0 , javaType=int, jdbcType=NUMERIC,type andler=MyTypeHandler ｝这个占位符,他就会被解析成如下 Map：
-      // {property -> _frc_item_0，"javaType" -> "int" , "jdbcType" -> "NUMERIC","typeHandler" -> "MyTypeHandler"}
-      Map<String, String> propertiesMap = parseParameterMapping(content);
-      String property = propertiesMap.get("property"); // 获取参数名称
-      Class<?> propertyType;
-      // 确定参数 javaType 属性
-      if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
-        propertyType = metaParameters.getGetterType(property);
-      } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
-        propertyType = parameterType;
-      } else if (JdbcType.CURSOR.name().equals(propertiesMap.get("jdbcType"))) {
-        propertyType = java.sql.ResultSet.class;
-      } else if (property == null || Map.class.isAssignableFrom(parameterType)) {
-        propertyType = Object.class;
-      } else {
-        MetaClass metaClass = MetaClass.forClass(parameterType, configuration.getReflectorFactory());
-        if (metaClass.hasGetter(property)) {
-          propertyType = metaClass.getGetterType(property);
-        } else {
-          propertyType = Object.class;
-        }
-      }
-      // 创建 ParameterMapping 的建造者，并设置 ParameterMapping 相关配置
-      ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
-      Class<?> javaType = propertyType;
-      String typeHandlerAlias = null;
-      for (Map.Entry<String, String> entry : propertiesMap.entrySet()) {
-        String name = entry.getKey();
-        String value = entry.getValue();
-        if ("javaType".equals(name)) {
-          javaType = resolveClass(value);
-          builder.javaType(javaType);
-        } else if ("jdbcType".equals(name)) {
-          builder.jdbcType(resolveJdbcType(value));
-        } else if ("mode".equals(name)) {
-          builder.mode(resolveParameterMode(value));
-        } else if ("numericScale".equals(name)) {
-          builder.numericScale(Integer.valueOf(value));
-        } else if ("resultMap".equals(name)) {
-          builder.resultMapId(value);
-        } else if ("typeHandler".equals(name)) {
-          typeHandlerAlias = value;
-        } else if ("jdbcTypeName".equals(name)) {
-          builder.jdbcTypeName(value);
-        } else if ("property".equals(name)) {
-          // Do Nothing
-        } else if ("expression".equals(name)) {
-          throw new BuilderException("Expression based parameters are not supported yet");
-        } else {
-          throw new BuilderException("An invalid property '" + name + "' was found in mapping #{" + content + "}.  Valid properties are " + PARAMETER_PROPERTIES);
-        }
-      }
-      // 获取 TypeHandler 对象
-      if (typeHandlerAlias != null) {
-        builder.typeHandler(resolveTypeHandler(javaType, typeHandlerAlias));
-      }
-      // 创建 ParameterMapping 对象，注意，如果没有指定 TypeHandler, 则会在这里的 build() 方法中 ，根据 javaType 和 jdbcType 从 TypeHandlerRegistry 中获取对应的 TypeHandler 对象
-      return builder.build();
-    }
-
-    private Map<String, String> parseParameterMapping(String content) {
-      try {
-        return new ParameterExpression(content);
-      } catch (BuilderException ex) {
-        throw ex;
-      } catch (Exception ex) {
-        throw new BuilderException("Parsing error was found in mapping #{" + content + "}.  Check syntax #{property|(expression), var1=value1, var2=value2, ...} ", ex);
-      }
-    }
   }
 
 }
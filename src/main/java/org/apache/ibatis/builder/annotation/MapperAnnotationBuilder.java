@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -436,7 +437,8 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+          || Stream.class.isAssignableFrom(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
@@ -570,7 +572,9 @@ public class MapperAnnotationBuilder {
           flags,
           null,
           null,
-          isLazy(result));
+          isLazy(result),
+          hasNestedSelect(result) ? nestedBatchSelectId(result) : null,
+          hasNestedSelect(result) ? nullOrEmpty(batchKey(result)) : null);
       resultMappings.add(resultMapping);
     }
   }
@@ -586,6 +590,28 @@ public class MapperAnnotationBuilder {
     return nestedSelect;
   }
 
+  private String nestedBatchSelectId(Result result) {
+    String batchSelect = result.one().batchSelect();
+    if (batchSelect.length() < 1) {
+      batchSelect = result.many().batchSelect();
+    }
+    if (batchSelect.length() < 1) {
+      return null;
+    }
+    if (!batchSelect.contains(".")) {
+      batchSelect = type.getName() + "." + batchSelect;
+    }
+    return batchSelect;
+  }
+
+  private String batchKey(Result result) {
+    String batchKey = result.one().batchKey();
+    if (batchKey.length() < 1) {
+      batchKey = result.many().batchKey();
+    }
+    return batchKey;
+  }
+
   private boolean isLazy(Result result) {
     boolean isLazy = configuration.isLazyLoadingEnabled();
     if (result.one().select().length() > 0 && FetchType.DEFAULT != result.one().fetchType()) {
@@ -20,9 +20,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.annotations.Lang;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.reflection.ParamNameResolver;
@@ -44,6 +46,8 @@ public class ProviderSqlSource implements SqlSource {
   private final Class<?>[] providerMethodParameterTypes;
   private final ProviderContext providerContext;
   private final Integer providerContextIndex;
+  // (参数类型, provider 方法返回的 SQL) -> LanguageDriver 创建的 SqlSource，providerSqlSourceCacheSize 为 0 时不使用
+  private final Map<CacheKey, SqlSource> sqlSourceCache = new ConcurrentHashMap<>();
 
   /**
    * @deprecated Since 3.5.3, Please use the {@link #ProviderSqlSource(Configuration, Annotation, Class, Method)} instead of this.
@@ -161,7 +165,7 @@ public class ProviderSqlSource implements SqlSource {
           + "' because SqlProvider method arguments for '" + mapperMethod + "' is an invalid combination.");
       }
       Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-      return languageDriver.createSqlSource(configuration, sql, parameterType);
+      return createSqlSource(sql, parameterType);
     } catch (BuilderException e) {
       throw e;
     } catch (Exception e) {
@@ -170,6 +174,23 @@ public class ProviderSqlSource implements SqlSource {
     }
   }
 
+  private SqlSource createSqlSource(String sql, Class<?> parameterType) {
+    int cacheSize = configuration.getProviderSqlSourceCacheSize();
+    if (cacheSize <= 0) {
+      return languageDriver.createSqlSource(configuration, sql, parameterType);
+    }
+    // 同一参数类型下相同的 SQL 会得到等价的 SqlSource，缓存后不必再次解析脚本
+    CacheKey key = new CacheKey(new Object[] { parameterType, sql });
+    SqlSource sqlSource = sqlSourceCache.get(key);
+    if (sqlSource == null) {
+      sqlSource = languageDriver.createSqlSource(configuration, sql, parameterType);
+      if (sqlSourceCache.size() < cacheSize) {
+        sqlSourceCache.putIfAbsent(key, sqlSource);
+      }
+    }
+    return sqlSource;
+  }
+
   private Throwable extractRootCause(Exception e) {
     Throwable cause = e;
     while(cause.getCause() != null) {
@@ -17,7 +17,13 @@ package org.apache.ibatis.builder.xml;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
@@ -38,6 +44,8 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
@@ -343,6 +351,15 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
+    configuration.setNestedSelectBatchSize(integerValueOf(props.getProperty("nestedSelectBatchSize"), 0));
+    configuration.setNestedSelectParallelism(integerValueOf(props.getProperty("nestedSelectParallelism"), 0));
+    configuration.setBulkInsertSize(integerValueOf(props.getProperty("bulkInsertSize"), 500));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), 0));
+    configuration.setAsyncPoolSize(integerValueOf(props.getProperty("asyncPoolSize"), 0));
+    configuration.setDynamicSqlShapeCacheSize(integerValueOf(props.getProperty("dynamicSqlShapeCacheSize"), 0));
+    configuration.setProviderSqlSourceCacheSize(integerValueOf(props.getProperty("providerSqlSourceCacheSize"), 0));
+    configuration.setWarmUpReflectors(booleanValueOf(props.getProperty("warmUpReflectors"), false));
+    configuration.setParallelMapperParsing(booleanValueOf(props.getProperty("parallelMapperParsing"), false));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
@@ -350,6 +367,8 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
     configuration.setDefaultScriptingLanguage(resolveClass(props.getProperty("defaultScriptingLanguage")));
+    configuration.setExpressionEngine((ExpressionEngine) createInstance(props.getProperty("expressionEngine")));
+    configuration.setExpressionCacheSize(integerValueOf(props.getProperty("expressionCacheSize"), OgnlCache.DEFAULT_SIZE));
     configuration.setDefaultEnumTypeHandler(resolveClass(props.getProperty("defaultEnumTypeHandler")));
     configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
     configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
@@ -501,7 +520,11 @@ public class XMLConfigBuilder extends BaseBuilder {
    */
   private void mapperElement(XNode parent) throws Exception {
     if (parent != null) {
-      for (XNode child : parent.getChildren()) {
+      List<XNode> children = parent.getChildren();
+      // 并行模式下先在后台线程中读取并解析所有 Mapper 配置文件，注册到 Configuration 仍按配置的顺序在当前线程中进行
+      List<Future<XPathParser>> documents = configuration.isParallelMapperParsing() ? parseMapperDocuments(children) : null;
+      for (int i = 0; i < children.size(); i++) {
+        XNode child = children.get(i);
         if ("package".equals(child.getName())) { // <package ＞子节点
           String mapperPackage = child.getStringAttribute("name");
           configuration.addMappers(mapperPackage);
@@ -514,13 +537,23 @@ public class XMLConfigBuilder extends BaseBuilder {
           // 并通过该对象解析 resource 或是 url 属性指定的 Mapper 配置文件
           if (resource != null && url == null && mapperClass == null) {
             ErrorContext.instance().resource(resource);
-            InputStream inputStream = Resources.getResourceAsStream(resource);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
+            XMLMapperBuilder mapperParser;
+            if (documents != null) {
+              mapperParser = new XMLMapperBuilder(getDocument(documents.get(i)), configuration, resource, configuration.getSqlFragments());
+            } else {
+              InputStream inputStream = Resources.getResourceAsStream(resource);
+              mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
+            }
             mapperParser.parse();
           } else if (resource == null && url != null && mapperClass == null) {
             ErrorContext.instance().resource(url);
-            InputStream inputStream = Resources.getUrlAsStream(url);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+            XMLMapperBuilder mapperParser;
+            if (documents != null) {
+              mapperParser = new XMLMapperBuilder(getDocument(documents.get(i)), configuration, url, configuration.getSqlFragments());
+            } else {
+              InputStream inputStream = Resources.getUrlAsStream(url);
+              mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+            }
             // 解析 mapper 节点
             mapperParser.parse();
           } else if (resource == null && url == null && mapperClass != null) {
@@ -535,6 +568,50 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  /**
+   * 在后台线程中读取并解析 resource、url 指定的 Mapper 配置文件，返回的列表与 children 一一对应，其他节点对应 null。
+   * 线程由当前线程创建，继承当前线程的 ContextClassLoader，保证 Resources 能找到与顺序解析时相同的文件
+   */
+  private List<Future<XPathParser>> parseMapperDocuments(List<XNode> children) {
+    List<Future<XPathParser>> documents = new ArrayList<>(children.size());
+    int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), children.size()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (XNode child : children) {
+        String resource = child.getStringAttribute("resource");
+        String url = child.getStringAttribute("url");
+        String mapperClass = child.getStringAttribute("class");
+        if ("package".equals(child.getName()) || mapperClass != null || (resource == null) == (url == null)) {
+          documents.add(null);
+        } else if (resource != null) {
+          documents.add(executor.submit(() -> newMapperDocument(Resources.getResourceAsStream(resource))));
+        } else {
+          documents.add(executor.submit(() -> newMapperDocument(Resources.getUrlAsStream(url))));
+        }
+      }
+    } finally {
+      // 已提交的任务会继续执行完
+      executor.shutdown();
+    }
+    return documents;
+  }
+
+  private XPathParser newMapperDocument(InputStream inputStream) {
+    return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
+  }
+
+  private XPathParser getDocument(Future<XPathParser> document) throws Exception {
+    try {
+      return document.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
   /**
    * 检测是否是，指定的环境
    * @param id
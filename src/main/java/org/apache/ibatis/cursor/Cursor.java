@@ -16,6 +16,13 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -45,4 +52,50 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
    * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
    */
   int getCurrentIndex();
+
+  /**
+   * Fetch up to {@code batchSize} items at once. Items already returned by the iterator are not returned again.
+   * The returned list may be reused by the next call, so callers must copy the items they want to keep.
+   * The default implementation reads from {@link #iterator()} on every call, so it requires {@code iterator()} to
+   * return the same iterator each time. Cursors that allow only one iterator must override this method.
+   *
+   * 一次读取多个结果对象，返回的 List 对象可能会被下一次调用复用。
+   * 默认实现每次都从 iterator() 返回的迭代器中读取，只允许打开一个迭代器的游标需要覆盖该方法
+   *
+   * @param batchSize the maximum number of items to fetch
+   * @return the fetched items, an empty list if the cursor is consumed or closed
+   * @throws IllegalStateException if the cursor does not allow to open its iterator again
+   * @since 3.5.4
+   */
+  default List<T> nextBatch(int batchSize) {
+    Iterator<T> iterator;
+    try {
+      iterator = iterator();
+    } catch (IllegalStateException e) {
+      throw new IllegalStateException("The default nextBatch() requires iterator() to return the same iterator on every call. "
+          + getClass().getName() + " allows only one iterator and must override nextBatch().", e);
+    }
+    List<T> batch = new ArrayList<>();
+    while (batch.size() < batchSize && iterator.hasNext()) {
+      batch.add(iterator.next());
+    }
+    return batch;
+  }
+
+  /**
+   * Returns a sequential {@link Stream} of the items of this cursor. Closing the stream closes the cursor,
+   * so the stream should be used in a try-with-resources statement.
+   *
+   * @return a stream of the items of this cursor
+   * @since 3.5.4
+   */
+  default Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false).onClose(() -> {
+      try {
+        close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
 }
@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A Spliterator over the items of a Cursor, fetching them in batches with {@link Cursor#nextBatch(int)}.
+ *
+ * 游标的 Spliterator，通过 Cursor.nextBatch() 批量读取结果对象
+ *
+ * @since 3.5.4
+ */
+class CursorSpliterator<T> implements Spliterator<T> {
+
+  static final int BATCH_SIZE = 128;
+
+  private final Cursor<T> cursor;
+  // 当前批次的结果对象，由 Cursor 复用，读取下一批次前必须处理完
+  private List<T> batch;
+  private int position;
+
+  CursorSpliterator(Cursor<T> cursor) {
+    this.cursor = cursor;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (!fill()) {
+      return false;
+    }
+    action.accept(batch.get(position++));
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    while (fill()) {
+      while (position < batch.size()) {
+        action.accept(batch.get(position++));
+      }
+    }
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    if (!fill()) {
+      return null;
+    }
+    // 将当前批次剩余的结果对象拆分出去，供并行流使用
+    Object[] split = batch.subList(position, batch.size()).toArray();
+    position = batch.size();
+    return Spliterators.spliterator(split, Spliterator.ORDERED);
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return Spliterator.ORDERED;
+  }
+
+  private boolean fill() {
+    if (batch == null || position == batch.size()) {
+      batch = cursor.nextBatch(BATCH_SIZE);
+      position = 0;
+    }
+    return !batch.isEmpty();
+  }
+
+}
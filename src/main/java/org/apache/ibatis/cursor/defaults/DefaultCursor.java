@@ -17,8 +17,11 @@ package org.apache.ibatis.cursor.defaults;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
@@ -44,6 +47,7 @@ public class DefaultCursor<T> implements Cursor<T> {
   protected final ObjectWrapperResultHandler<T> objectWrapperResultHandler = new ObjectWrapperResultHandler<>();
 
   private final CursorIterator cursorIterator = new CursorIterator();
+  private final List<T> batch = new ArrayList<>();
   private boolean iteratorRetrieved;
 
   private CursorStatus status = CursorStatus.CREATED;
@@ -103,6 +107,20 @@ public class DefaultCursor<T> implements Cursor<T> {
     return cursorIterator;
   }
 
+  @Override
+  public List<T> nextBatch(int batchSize) {
+    batch.clear();
+    while (batch.size() < batchSize && cursorIterator.hasNext()) {
+      batch.add(cursorIterator.next());
+    }
+    return batch;
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return new CursorSpliterator<>(this);
+  }
+
   @Override
   public void close() {
     if (isClosed()) {
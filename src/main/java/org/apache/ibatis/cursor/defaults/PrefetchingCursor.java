@@ -0,0 +1,259 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A Cursor that fetches and maps the rows of another cursor on a producer thread, into a bounded queue.
+ * The consumer processes earlier rows while the next ones are read from the database; the producer blocks
+ * when the queue is full. Closing the cursor stops the producer and waits for it to close the ResultSet.
+ * This implementation is not thread safe.
+ *
+ * 预取游标：在后台线程中读取并映射结果集，放入有界队列中，消费线程处理之前的结果时，后台线程继续读取数据库
+ *
+ * @since 3.5.4
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final AtomicInteger threadNumber = new AtomicInteger();
+  // 队列不能存放 null，使用占位对象表示映射结果为 null 的行
+  private static final Object NULL = new Object();
+  // 结果集读取完毕的标志
+  private static final Object END = new Object();
+  // 后台线程等待队列空位、close() 等待后台线程退出时，每次检查 closed 的间隔
+  private static final long PRODUCER_WAIT_MILLIS = 10;
+
+  private final Cursor<T> delegate;
+  private final BlockingQueue<Object> queue;
+  private final PrefetchingIterator iterator = new PrefetchingIterator();
+  private final List<T> batch = new ArrayList<>();
+  private final int initialIndex;
+  private Thread producer;
+  private boolean iteratorRetrieved;
+  private boolean consumed;
+  private volatile boolean closed;
+  private int readCount;
+
+  public PrefetchingCursor(Cursor<T> delegate, int prefetchSize) {
+    this.delegate = delegate;
+    this.queue = new ArrayBlockingQueue<>(prefetchSize);
+    this.initialIndex = delegate.getCurrentIndex();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return producer != null && !closed && !consumed;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return initialIndex + readCount;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed || consumed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    start();
+    return iterator;
+  }
+
+  @Override
+  public List<T> nextBatch(int batchSize) {
+    batch.clear();
+    if (!closed && !consumed) {
+      start();
+    }
+    while (batch.size() < batchSize && iterator.hasNext()) {
+      batch.add(iterator.next());
+    }
+    return batch;
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return new CursorSpliterator<>(this);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (producer == null) {
+      closeDelegate();
+      return;
+    }
+    // 中断后台线程，使其从等待队列空位中返回；后台线程检测到 closed 后不再放入结果，关闭结果集并退出。
+    // 等待期间反复清空队列，后台线程不会因队列已满而阻塞
+    producer.interrupt();
+    boolean interrupted = false;
+    while (producer.isAlive()) {
+      queue.clear();
+      try {
+        producer.join(PRODUCER_WAIT_MILLIS);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    queue.clear();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void start() {
+    if (producer == null) {
+      producer = new Thread(this::produce, "mybatis-cursor-prefetch-" + threadNumber.incrementAndGet());
+      producer.setDaemon(true);
+      producer.start();
+    }
+  }
+
+  private void produce() {
+    try {
+      for (T object : delegate) {
+        if (!enqueue(object == null ? NULL : object)) {
+          return;
+        }
+      }
+      enqueue(END);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      try {
+        enqueue(new Failure(t));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      if (closed) {
+        // 清除 close() 设置的中断标记，避免影响结果集的关闭
+        Thread.interrupted();
+      }
+      closeDelegate();
+    }
+  }
+
+  // 队列已满时等待消费线程取走结果，游标关闭后放弃并返回 false
+  private boolean enqueue(Object element) throws InterruptedException {
+    while (!closed) {
+      if (queue.offer(element, PRODUCER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void closeDelegate() {
+    try {
+      delegate.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  private static class Failure {
+    private final Throwable cause;
+
+    Failure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  protected class PrefetchingIterator implements Iterator<T> {
+
+    /**
+     * Holder for the next object (or marker) taken from the queue.
+     */
+    private Object pending;
+
+    @Override
+    public boolean hasNext() {
+      if (pending == null) {
+        pending = take();
+      }
+      return pending != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Object next = pending;
+      pending = null;
+      readCount++;
+      return next == NULL ? null : (T) next;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+
+    private Object take() {
+      if (closed || consumed) {
+        return END;
+      }
+      Object next;
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new RuntimeException("Interrupted while waiting for the next object of the Cursor.", e);
+      }
+      if (next == END) {
+        consumed = true;
+      } else if (next instanceof Failure) {
+        close();
+        Throwable cause = ((Failure) next).cause;
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException(cause);
+      }
+      return next;
+    }
+  }
+}
@@ -19,8 +19,11 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import org.apache.ibatis.datasource.pooled.PreparedStatementCache.StatementKey;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -30,6 +33,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private final int hashCode;
@@ -41,6 +45,8 @@ class PooledConnection implements InvocationHandler {
   private final Connection realConnection;
   // 数据库连接代理对象
   private final Connection proxyConnection;
+  // 真正的数据库连接上缓存的 PreparedStatement，随真正的数据库连接在 PooledConnection 之间传递，未开启时为 null
+  private final PreparedStatementCache statementCache;
   // 从数据库连接池 PooledDataSource 中， 获取该链接的时间戳
   private long checkoutTimestamp;
   // 该连接被创建的时间戳
@@ -59,12 +65,26 @@ class PooledConnection implements InvocationHandler {
    * @param dataSource - the dataSource that the connection is from
    */
   public PooledConnection(Connection connection, PooledDataSource dataSource) {
+    this(connection, dataSource, dataSource.getPoolPreparedStatementCacheSize() > 0
+        ? new PreparedStatementCache(dataSource.getPoolPreparedStatementCacheSize()) : null);
+  }
+
+  /**
+   * Constructor for SimplePooledConnection that keeps the prepared statements already cached for the connection.
+   *
+   * @param connection - the connection that is to be presented as a pooled connection
+   * @param dataSource - the dataSource that the connection is from
+   * @param statementCache - the prepared statements cached for the connection, or null if caching is disabled
+   * @since 3.5.4
+   */
+  PooledConnection(Connection connection, PooledDataSource dataSource, PreparedStatementCache statementCache) {
     this.hashCode = connection.hashCode();
     this.realConnection = connection;
     this.dataSource = dataSource;
     this.createdTimestamp = System.currentTimeMillis();
     this.lastUsedTimestamp = System.currentTimeMillis();
     this.valid = true;
+    this.statementCache = statementCache;
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
   }
 
@@ -103,6 +123,24 @@ class PooledConnection implements InvocationHandler {
     return proxyConnection;
   }
 
+  /**
+   * Getter for the prepared statements cached for the *real* connection.
+   *
+   * @return The statement cache, or null if caching is disabled
+   */
+  PreparedStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Closes the prepared statements cached for the *real* connection.
+   */
+  void clearStatementCache() {
+    if (statementCache != null) {
+      statementCache.clear();
+    }
+  }
+
   /**
    * Gets the hashcode of the real connection (or 0 if it is null).
    *
@@ -257,6 +295,10 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         checkConnection();  // 通过 valid 字段检测连接是否有效
       }
+      // 开启 PreparedStatement 缓存时，优先复用真正的数据库连接上缓存的 PreparedStatement
+      if (statementCache != null && PREPARE_STATEMENT.equals(methodName)) {
+        return prepareStatement(method, args);
+      }
       // 调用真正数据库连接对象的对应方法
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
@@ -265,6 +307,43 @@ class PooledConnection implements InvocationHandler {
 
   }
 
+  private PreparedStatement prepareStatement(Method method, Object[] args) throws Exception {
+    StatementKey key = new StatementKey(args);
+    PreparedStatement statement = statementCache.take(key);
+    if (statement == null) {
+      statement = (PreparedStatement) method.invoke(realConnection, args);
+    }
+    return new PooledStatement(this, key, statement).getProxyStatement();
+  }
+
+  /**
+   * PooledStatement 关闭时调用，将 PreparedStatement 恢复为默认状态后放回缓存；无法恢复或无法放回缓存时，真正关闭 PreparedStatement
+   */
+  void returnStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+    if (!statement.isClosed()) {
+      try {
+        resetStatement(statement);
+        if (statementCache.offer(key, statement)) {
+          return;
+        }
+      } catch (SQLException e) {
+        // fall through and close the statement
+      }
+    }
+    statement.close();
+  }
+
+  // 清除上一次使用时设置的参数、批处理和执行选项，避免影响下一次从缓存中取出的 PreparedStatement
+  private void resetStatement(PreparedStatement statement) throws SQLException {
+    statement.clearParameters();
+    statement.clearBatch();
+    statement.clearWarnings();
+    statement.setQueryTimeout(0);
+    statement.setFetchSize(0);
+    statement.setMaxRows(0);
+    statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+  }
+
   private void checkConnection() throws SQLException {
     if (!valid) {
       throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
@@ -61,6 +61,8 @@ public class PooledDataSource implements DataSource {
   protected boolean poolPingEnabled;
   // 当连接超 poolPingConnectionsNotUsedFor 毫秒未使用时，会发送一次测试 SQL 语句，检测连接是否正常
   protected int poolPingConnectionsNotUsedFor;
+  // 每个数据库连接上缓存的 PreparedStatement 最大个数，0 表示不缓存
+  protected int poolPreparedStatementCacheSize;
   // 根据数据库的 URL 用户名和密码生成的一个 hash 值，该哈希值用于标志着当前的连接池，在构造函数中初始化
   private int expectedConnectionTypeCode;
 
@@ -261,6 +263,18 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The maximum number of prepared statements cached for each connection, so that they are reused by
+   * the sessions that borrow the connection afterwards. 0 (the default) disables the cache.
+   *
+   * @param poolPreparedStatementCacheSize the number of prepared statements cached for each connection
+   * @since 3.5.4
+   */
+  public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+    this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -328,6 +342,13 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public int getPoolPreparedStatementCacheSize() {
+    return poolPreparedStatementCacheSize;
+  }
+
   /**
    * 当修改 PooledDataSource 的字段时，例如数据库 URL、用户名、密码、autoCommit 配置等，都会调用 forceCloseAll() 方法，将所有数据库连接关闭，
    * 同时也会将所有相应的 PooledConnection 对象都设置为无效，清空 activeConnections 集合 和 idleConnections 集合。
@@ -344,6 +365,7 @@ public class PooledDataSource implements DataSource {
           // 从 activeConnections 集合中获取 PooledConnection 对象
           PooledConnection conn = state.activeConnections.remove(i - 1);
           conn.invalidate();// 将 PooledConnection 对象设置为无效
+          conn.clearStatementCache(); // 关闭缓存的 PreparedStatement
           // 获取真正的数据库连接对象
           Connection realConn = conn.getRealConnection();
           if (!realConn.getAutoCommit()) {// 回滚未提交的事务
@@ -359,6 +381,7 @@ public class PooledDataSource implements DataSource {
         try {
           PooledConnection conn = state.idleConnections.remove(i - 1);
           conn.invalidate();
+          conn.clearStatementCache();
 
           Connection realConn = conn.getRealConnection();
           if (!realConn.getAutoCommit()) {
@@ -399,7 +422,7 @@ public class PooledDataSource implements DataSource {
             conn.getRealConnection().rollback();
           }
           //数据库 connection 重新包装为 PooledConnection 放入 idleConnections 中
-          PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this, conn.getStatementCache());
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -414,6 +437,7 @@ public class PooledDataSource implements DataSource {
           if (!conn.getRealConnection().getAutoCommit()) { // 回滚事务
             conn.getRealConnection().rollback();
           }
+          conn.clearStatementCache();
           conn.getRealConnection().close(); // 关闭真正的数据库连接
           if (log.isDebugEnabled()) {
             log.debug("Closed connection " + conn.getRealHashCode() + ".");
@@ -493,7 +517,7 @@ public class PooledDataSource implements DataSource {
                 }
               }
               // 创建新 PooledConnection 对象，但是真正的数据库连接并未创建
-              conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+              conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this, oldestActiveConnection.getStatementCache());
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
               // 使连接失效
@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.apache.ibatis.datasource.pooled.PreparedStatementCache.StatementKey;
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * PreparedStatementCache 中 PreparedStatement 的代理，拦截 close() 方法，将 PreparedStatement 放回缓存，而不是真正关闭
+ *
+ * @since 3.5.4
+ */
+class PooledStatement implements InvocationHandler {
+
+  private static final String CLOSE = "close";
+  private static final String IS_CLOSED = "isClosed";
+  private static final String GET_CONNECTION = "getConnection";
+  private static final Class<?>[] IFACES = new Class<?>[] { PreparedStatement.class };
+
+  private final PooledConnection connection;
+  private final StatementKey key;
+  private final PreparedStatement realStatement;
+  private final PreparedStatement proxyStatement;
+  private boolean closed;
+
+  PooledStatement(PooledConnection connection, StatementKey key, PreparedStatement realStatement) {
+    this.connection = connection;
+    this.key = key;
+    this.realStatement = realStatement;
+    this.proxyStatement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES, this);
+  }
+
+  PreparedStatement getProxyStatement() {
+    return proxyStatement;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String methodName = method.getName();
+    if (CLOSE.equals(methodName)) {
+      if (!closed) {
+        closed = true;
+        connection.returnStatement(key, realStatement);
+      }
+      return null;
+    } else if (IS_CLOSED.equals(methodName)) {
+      return closed || realStatement.isClosed();
+    } else if (GET_CONNECTION.equals(methodName)) {
+      return connection.getProxyConnection();
+    }
+    try {
+      if (closed && !Object.class.equals(method.getDeclaringClass())) {
+        throw new SQLException("Error accessing PooledStatement. Statement is closed.");
+      }
+      return method.invoke(realStatement, args);
+    } catch (Throwable t) {
+      throw ExceptionUtil.unwrapThrowable(t);
+    }
+  }
+
+}
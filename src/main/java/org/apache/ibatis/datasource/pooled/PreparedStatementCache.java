@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 真实数据库连接上的 PreparedStatement 缓存，按 LRU 淘汰。
+ * 缓存只保存空闲的 PreparedStatement：取出时从缓存中移除，调用 close() 时再放回缓存，
+ * 因此同一条 SQL 同时被使用多次时，每次使用的都是不同的 PreparedStatement 对象。
+ * 该缓存随真实数据库连接在不同的 PooledConnection 之间传递，使 PreparedStatement 可以跨 SqlSession 复用。
+ *
+ * @since 3.5.4
+ */
+class PreparedStatementCache {
+
+  private final Map<StatementKey, PreparedStatement> statements;
+
+  PreparedStatementCache(final int size) {
+    this.statements = new LinkedHashMap<StatementKey, PreparedStatement>(size, .75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+        if (size() > size) {
+          closeQuietly(eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * 取出一个空闲的 PreparedStatement，没有缓存时返回 null
+   */
+  synchronized PreparedStatement take(StatementKey key) {
+    return statements.remove(key);
+  }
+
+  /**
+   * 将使用完的 PreparedStatement 放回缓存，如果缓存中已经存在相同 key 的 PreparedStatement，则返回 false
+   */
+  synchronized boolean offer(StatementKey key, PreparedStatement statement) {
+    if (statements.containsKey(key)) {
+      return false;
+    }
+    statements.put(key, statement);
+    return true;
+  }
+
+  /**
+   * 关闭并清空缓存的全部 PreparedStatement
+   */
+  synchronized void clear() {
+    for (Iterator<PreparedStatement> iterator = statements.values().iterator(); iterator.hasNext();) {
+      closeQuietly(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  synchronized int size() {
+    return statements.size();
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * 由 Connection.prepareStatement() 的全部实参组成的 key，包含 SQL 以及 resultSetType 等参数
+   */
+  static final class StatementKey {
+
+    private final Object[] args;
+    private final int hashCode;
+
+    StatementKey(Object[] args) {
+      this.args = args.clone();
+      this.hashCode = Arrays.deepHashCode(this.args);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return this == obj || obj instanceof StatementKey && Arrays.deepEquals(args, ((StatementKey) obj).args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.deepToString(args);
+    }
+  }
+
+}
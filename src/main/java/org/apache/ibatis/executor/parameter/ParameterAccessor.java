@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.parameter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.CompiledPropertyPath;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 某一类型的参数对象中 "#{}" 占位符属性的取值方式。第一次读取某个属性时解析一次：整个参数对象交给 TypeHandler、
+ * 按键从 Map 中取值，或者直接调用 Reflector 中缓存的 getter；嵌套属性通过 {@link CompiledPropertyPath} 读取，其他情况才会创建 MetaObject 读取属性。
+ *
+ * @since 3.5.4
+ */
+public final class ParameterAccessor {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+  // 每种参数类型最多缓存的属性个数，"${}" 占位符可能生成任意的属性名称
+  private static final int MAX_PROPERTIES = 256;
+
+  private final Configuration configuration;
+  private final Class<?> parameterType;
+  // 参数类型存在对应的 TypeHandler 时，所有占位符都绑定参数对象本身
+  private final boolean simpleType;
+  // 属性名称 -> 取值方式
+  private final Map<String, Getter> getters = new ConcurrentHashMap<>();
+
+  public ParameterAccessor(Configuration configuration, Class<?> parameterType) {
+    this.configuration = configuration;
+    this.parameterType = parameterType;
+    this.simpleType = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+  }
+
+  public Class<?> getParameterType() {
+    return parameterType;
+  }
+
+  /**
+   * 读取参数对象中的属性值，参数对象的类型必须是 {@link #getParameterType()}
+   */
+  public Object getValue(Object parameterObject, String property) {
+    if (simpleType) {
+      return parameterObject;
+    }
+    Getter getter = getters.get(property);
+    if (getter == null) {
+      getter = resolveGetter(property);
+      if (getters.size() < MAX_PROPERTIES) {
+        getters.put(property, getter);
+      }
+    }
+    return getter.get(parameterObject, property);
+  }
+
+  private Getter resolveGetter(String property) {
+    boolean simpleProperty = property.indexOf('.') < 0 && property.indexOf('[') < 0;
+    if (!simpleProperty) {
+      // 嵌套属性，逐段缓存 Invoker，不再为每一段创建 MetaObject
+      CompiledPropertyPath path = configuration.newPropertyPath(property);
+      return (parameterObject, name) -> path.getValue(parameterObject);
+    }
+    // 与 MetaObject 选择 ObjectWrapper 的顺序一致，自定义 ObjectWrapperFactory 时始终通过 MetaObject 读取
+    if (ObjectWrapper.class.isAssignableFrom(parameterType)
+        || !(configuration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory)
+        || Collection.class.isAssignableFrom(parameterType)) {
+      return this::getByMetaObject;
+    }
+    if (Map.class.isAssignableFrom(parameterType)) {
+      return (parameterObject, name) -> ((Map<?, ?>) parameterObject).get(name);
+    }
+    Reflector reflector = configuration.getReflectorFactory().findForClass(parameterType);
+    if (!reflector.hasGetter(property)) {
+      // 由 MetaObject 抛出与之前相同的异常
+      return this::getByMetaObject;
+    }
+    Invoker invoker = reflector.getGetInvoker(property);
+    return (parameterObject, name) -> getByInvoker(invoker, parameterObject, name);
+  }
+
+  private Object getByMetaObject(Object parameterObject, String property) {
+    return configuration.newMetaObject(parameterObject).getValue(property);
+  }
+
+  private static Object getByInvoker(Invoker invoker, Object parameterObject, String property) {
+    try {
+      try {
+        return invoker.invoke(parameterObject, NO_ARGUMENTS);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not get property '" + property + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+    }
+  }
+
+  private interface Getter {
+    Object get(Object parameterObject, String property);
+  }
+
+}
@@ -21,21 +21,29 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -49,6 +57,7 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.CompiledPropertyPath;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
@@ -58,6 +67,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
@@ -73,6 +83,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
 
+  // marks threads of the nested select executor service, whose own nested selects always run serially
+  private static final ThreadLocal<Boolean> LOADING_IN_PARALLEL = new ThreadLocal<>();
+
   // 执行器
   private final Executor executor;
   private final Configuration configuration;
@@ -110,6 +123,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // deferred nested selects
+  private final Map<ResultMapping, PendingBatchSelect> pendingBatchSelects = new IdentityHashMap<>();
+  private final Map<ResultMapping, Map<CacheKey, PendingNestedQuery>> pendingNestedQueries = new IdentityHashMap<>();
+  private boolean deferNestedSelects;
+  private boolean parallelNestedSelects;
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
@@ -118,17 +137,30 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
+  private static class PendingBatchSelect {
+    public MappedStatement batchQuery;
+    public Class<?> keyType;
+    public final Map<Object, List<MetaObject>> parentsByKey = new LinkedHashMap<>();
+  }
+
+  private static class PendingNestedQuery {
+    public ResultLoader resultLoader;
+    public final List<MetaObject> metaObjects = new ArrayList<>();
+  }
+
   private static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
     private final TypeHandler<?> typeHandler;
     private final boolean primitive;
+    private final CompiledPropertyPath propertyPath;
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive, CompiledPropertyPath propertyPath) {
       this.column = column;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
+      this.propertyPath = propertyPath;
     }
   }
 
@@ -226,6 +258,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     List<ResultMap> resultMaps = mappedStatement.getResultMaps();
     int resultMapCount = resultMaps.size();
     validateResultMapsCount(rsw, resultMapCount);
+    // 只有结果全部收集完毕后才返回时，才能延后执行嵌套查询
+    parallelNestedSelects = configuration.getNestedSelectExecutorService() != null && LOADING_IN_PARALLEL.get() == null;
+    deferNestedSelects = resultHandler == null && (configuration.getNestedSelectBatchSize() > 0 || parallelNestedSelects);
     // 如果结果集不为空，则 resultMaps 集合不能为空，否则抛出异常
     while (rsw != null && resultMapCount > resultSetCount) { // ---(1) 遍历 resultMaps 集合
       // 获取 ResultMap
@@ -259,6 +294,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    loadPendingNestedSelects();
     return collapseSingleResultList(multipleResults);
   }
 
@@ -277,7 +313,39 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    // 嵌套查询会在后台线程中使用当前 Executor，因此只对没有嵌套查询的 ResultMap 开启预取
+    if (configuration.getCursorPrefetchSize() > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+      cursor = new PrefetchingCursor<>(cursor, configuration.getCursorPrefetchSize());
+    }
+    return cursor;
+  }
+
+  // ResultMap.hasNestedQueries() 只检查自身的映射，嵌套的 resultMap 和 discriminator 的 case 中也可能包含嵌套查询
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> visited) {
+    if (!visited.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      String nestedResultMapId = resultMapping.getNestedResultMapId();
+      if (nestedResultMapId != null && configuration.hasResultMap(nestedResultMapId)
+          && hasNestedQueries(configuration.getResultMap(nestedResultMapId), visited)) {
+        return true;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (configuration.hasResultMap(caseResultMapId)
+            && hasNestedQueries(configuration.getResultMap(caseResultMapId), visited)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   /**
@@ -510,7 +578,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(property, value);
+          propertyMapping.getPropertyPath().setValue(metaObject.getOriginalObject(), value);
         }
       }
     }
@@ -556,7 +624,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final Class<?> propertyType = metaObject.getSetterType(property);
           if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive(),
+                configuration.newPropertyPath(property)));
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
                 .doAction(mappedStatement, columnName, property, propertyType);
@@ -582,7 +651,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         if (value != null || (configuration.isCallSettersOnNulls() && !mapping.primitive)) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(mapping.property, value);
+          mapping.propertyPath.setValue(metaObject.getOriginalObject(), value);
         }
       }
     }
@@ -796,6 +865,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object getNestedQueryMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
+    if (isBatchable(propertyMapping)) {
+      return addPendingBatchSelect(rs, metaResultObject, propertyMapping, columnPrefix);
+    }
     final String nestedQueryId = propertyMapping.getNestedQueryId();
     final String property = propertyMapping.getProperty();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
@@ -814,6 +886,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (propertyMapping.isLazy()) {
           lazyLoader.addLoader(property, metaResultObject, resultLoader);
           value = DEFERRED;
+        } else if (deferNestedSelects && parallelNestedSelects) {
+          addPendingNestedQuery(metaResultObject, propertyMapping, key, resultLoader);
+          value = DEFERRED;
         } else {
           value = resultLoader.loadResult();
         }
@@ -822,6 +897,171 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  //
+  // DEFERRED NESTED QUERY
+  //
+
+  private boolean isBatchable(ResultMapping propertyMapping) {
+    return deferNestedSelects
+        && configuration.getNestedSelectBatchSize() > 0
+        && propertyMapping.getNestedBatchQueryId() != null
+        && !propertyMapping.isLazy()
+        && !propertyMapping.isCompositeResult();
+  }
+
+  private Object addPendingBatchSelect(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, String columnPrefix) throws SQLException {
+    PendingBatchSelect pending = pendingBatchSelects.get(propertyMapping);
+    if (pending == null) {
+      pending = new PendingBatchSelect();
+      pending.batchQuery = configuration.getMappedStatement(propertyMapping.getNestedBatchQueryId());
+      pending.keyType = resolveBatchKeyType(pending.batchQuery, propertyMapping);
+      pendingBatchSelects.put(propertyMapping, pending);
+    }
+    final Object key = prepareSimpleKeyParameter(rs, propertyMapping, pending.keyType, columnPrefix);
+    // issue #353 & #560 do not execute nested query if key is null
+    if (key == null) {
+      return null;
+    }
+    pending.parentsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(metaResultObject);
+    return DEFERRED;
+  }
+
+  private void addPendingNestedQuery(MetaObject metaResultObject, ResultMapping propertyMapping, CacheKey key, ResultLoader resultLoader) {
+    final PendingNestedQuery pending = pendingNestedQueries.computeIfAbsent(propertyMapping, k -> new LinkedHashMap<>())
+        .computeIfAbsent(key, k -> new PendingNestedQuery());
+    if (pending.resultLoader == null) {
+      pending.resultLoader = resultLoader;
+    }
+    pending.metaObjects.add(metaResultObject);
+  }
+
+  private Class<?> resolveBatchKeyType(MappedStatement batchQuery, ResultMapping propertyMapping) {
+    // read parent keys with the type of the child key property so that both sides compare equal
+    final Class<?> resultType = batchQuery.getResultMaps().get(0).getType();
+    final MetaClass metaClass = MetaClass.forClass(resultType, reflectorFactory);
+    if (metaClass.hasGetter(propertyMapping.getBatchKey())) {
+      return metaClass.getGetterType(propertyMapping.getBatchKey());
+    }
+    return configuration.getMappedStatement(propertyMapping.getNestedQueryId()).getParameterMap().getType();
+  }
+
+  private void loadPendingNestedSelects() throws SQLException {
+    deferNestedSelects = false;
+    if (pendingBatchSelects.isEmpty() && pendingNestedQueries.isEmpty()) {
+      return;
+    }
+    // collect every query first so that independent nested selects can run together
+    final List<ResultLoader> resultLoaders = new ArrayList<>();
+    final Map<ResultMapping, List<ResultLoader>> batchLoaders = new IdentityHashMap<>();
+    final int batchSize = configuration.getNestedSelectBatchSize();
+    for (Map.Entry<ResultMapping, PendingBatchSelect> entry : pendingBatchSelects.entrySet()) {
+      final MappedStatement batchQuery = entry.getValue().batchQuery;
+      final List<Object> keys = new ArrayList<>(entry.getValue().parentsByKey.keySet());
+      final List<ResultLoader> loaders = new ArrayList<>();
+      for (int from = 0; from < keys.size(); from += batchSize) {
+        final List<Object> keyBatch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+        final StrictMap<Object> parameterObject = new StrictMap<>();
+        parameterObject.put("collection", keyBatch);
+        parameterObject.put("list", keyBatch);
+        final BoundSql batchBoundSql = batchQuery.getBoundSql(parameterObject);
+        final CacheKey key = executor.createCacheKey(batchQuery, parameterObject, RowBounds.DEFAULT, batchBoundSql);
+        loaders.add(new ResultLoader(configuration, executor, batchQuery, parameterObject, List.class, key, batchBoundSql));
+      }
+      batchLoaders.put(entry.getKey(), loaders);
+      resultLoaders.addAll(loaders);
+    }
+    for (Map<CacheKey, PendingNestedQuery> pendingQueries : pendingNestedQueries.values()) {
+      for (PendingNestedQuery pending : pendingQueries.values()) {
+        resultLoaders.add(pending.resultLoader);
+      }
+    }
+    final Map<ResultLoader, Object> results = loadResults(resultLoaders);
+
+    final ResultExtractor resultExtractor = new ResultExtractor(configuration, objectFactory);
+    for (Map.Entry<ResultMapping, PendingBatchSelect> entry : pendingBatchSelects.entrySet()) {
+      final ResultMapping propertyMapping = entry.getKey();
+      final Map<Object, List<Object>> childrenByKey = new HashMap<>();
+      for (ResultLoader loader : batchLoaders.get(propertyMapping)) {
+        @SuppressWarnings("unchecked")
+        final List<Object> children = (List<Object>) results.get(loader);
+        for (Object child : children) {
+          final Object childKey = configuration.newMetaObject(child).getValue(propertyMapping.getBatchKey());
+          childrenByKey.computeIfAbsent(childKey, k -> new ArrayList<>()).add(child);
+        }
+      }
+      for (Map.Entry<Object, List<MetaObject>> parents : entry.getValue().parentsByKey.entrySet()) {
+        final List<Object> children = childrenByKey.getOrDefault(parents.getKey(), Collections.emptyList());
+        for (MetaObject metaResultObject : parents.getValue()) {
+          final Object value = resultExtractor.extractObjectFromList(new ArrayList<>(children), propertyMapping.getJavaType());
+          if (value != null) {
+            metaResultObject.setValue(propertyMapping.getProperty(), value);
+          }
+        }
+      }
+    }
+    for (Map.Entry<ResultMapping, Map<CacheKey, PendingNestedQuery>> entry : pendingNestedQueries.entrySet()) {
+      final String property = entry.getKey().getProperty();
+      for (PendingNestedQuery pending : entry.getValue().values()) {
+        final Object value = results.get(pending.resultLoader);
+        if (value != null) {
+          for (MetaObject metaResultObject : pending.metaObjects) {
+            metaResultObject.setValue(property, value);
+          }
+        }
+      }
+    }
+    pendingBatchSelects.clear();
+    pendingNestedQueries.clear();
+  }
+
+  private Map<ResultLoader, Object> loadResults(List<ResultLoader> resultLoaders) throws SQLException {
+    final Map<ResultLoader, Object> results = new IdentityHashMap<>();
+    if (!parallelNestedSelects || resultLoaders.size() < 2) {
+      for (ResultLoader resultLoader : resultLoaders) {
+        results.put(resultLoader, resultLoader.loadResult());
+      }
+      return results;
+    }
+    // a ResultLoader invoked from another thread runs on its own executor and connection
+    final ExecutorService executorService = configuration.getNestedSelectExecutorService();
+    final Map<ResultLoader, Future<Object>> futures = new IdentityHashMap<>();
+    for (ResultLoader resultLoader : resultLoaders) {
+      futures.put(resultLoader, executorService.submit(() -> loadResultInParallel(resultLoader)));
+    }
+    try {
+      for (Map.Entry<ResultLoader, Future<Object>> entry : futures.entrySet()) {
+        results.put(entry.getKey(), entry.getValue().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for nested selects.  Cause: " + e, e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ExecutorException("Error loading nested select.  Cause: " + cause, cause);
+    } finally {
+      for (Future<Object> future : futures.values()) {
+        // 不中断正在执行的嵌套查询，中断 JDBC 调用可能损坏连接
+        future.cancel(false);
+      }
+    }
+    return results;
+  }
+
+  private static Object loadResultInParallel(ResultLoader resultLoader) throws SQLException {
+    LOADING_IN_PARALLEL.set(Boolean.TRUE);
+    try {
+      return resultLoader.loadResult();
+    } finally {
+      LOADING_IN_PARALLEL.remove();
+      ErrorContext.instance().reset();
+    }
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -0,0 +1,239 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * 把 Jar 包中的包扫描结果保存到快照文件中的 {@link DefaultVFS}。
+ * DefaultVFS 列出 Jar 包中某个包下的资源时，需要顺序读取整个 Jar 包；&lt;typeAliases&gt;、&lt;typeHandlers&gt;、&lt;mappers&gt;
+ * 中的 &lt;package&gt; 每次启动都要重新扫描。SnapshotVFS 把每个 Jar 包、每个路径的扫描结果连同 Jar 文件的大小和修改时间写入快照文件，
+ * 之后的启动中 Jar 文件没有变化时直接使用快照，有变化时重新扫描，并在 {@link #list(String)} 扫描完成后（或调用 {@link #flush()} 时）
+ * 一次性更新快照。目录中的资源每次都重新列出。
+ * <p>
+ * 通过系统属性 {@value #SNAPSHOT_FILE_PROPERTY} 指定快照文件，并在 mybatis-config.xml 中配置
+ * &lt;setting name="vfsImpl" value="org.apache.ibatis.io.SnapshotVFS"/&gt;；没有指定快照文件时，这个实现无效。
+ *
+ * @since 3.5.4
+ */
+public class SnapshotVFS extends DefaultVFS {
+  private static final Log log = LogFactory.getLog(SnapshotVFS.class);
+
+  public static final String SNAPSHOT_FILE_PROPERTY = "org.apache.ibatis.io.SnapshotVFS.file";
+
+  // 快照文件格式的标识和版本，格式变化时增加版本号，旧快照被忽略
+  private static final int MAGIC = 0x4D425653;
+  private static final int VERSION = 1;
+
+  private final File snapshotFile;
+  // Jar 包 URL 与路径 -> 扫描结果
+  private final Map<String, Listing> listings = new HashMap<>();
+  // listings 中有尚未写入快照文件的扫描结果
+  private boolean dirty;
+
+  public SnapshotVFS() {
+    this(snapshotFileFromSystemProperty());
+  }
+
+  public SnapshotVFS(File snapshotFile) {
+    this.snapshotFile = snapshotFile;
+    if (snapshotFile != null) {
+      load();
+    }
+  }
+
+  private static File snapshotFileFromSystemProperty() {
+    String fileName = System.getProperty(SNAPSHOT_FILE_PROPERTY);
+    return fileName == null || fileName.isEmpty() ? null : new File(fileName);
+  }
+
+  @Override
+  public boolean isValid() {
+    return snapshotFile != null && super.isValid();
+  }
+
+  public File getSnapshotFile() {
+    return snapshotFile;
+  }
+
+  @Override
+  public List<String> list(String path) throws IOException {
+    List<String> names = super.list(path);
+    flush();
+    return names;
+  }
+
+  @Override
+  public List<String> list(URL url, String path) throws IOException {
+    File jarFile = jarFileOf(url);
+    if (jarFile == null) {
+      return super.list(url, path);
+    }
+    String key = url.toExternalForm() + '\n' + path;
+    long length = jarFile.length();
+    long lastModified = jarFile.lastModified();
+    synchronized (listings) {
+      Listing listing = listings.get(key);
+      if (listing != null && listing.length == length && listing.lastModified == lastModified) {
+        return new ArrayList<>(listing.resources);
+      }
+    }
+    List<String> resources = super.list(url, path);
+    synchronized (listings) {
+      listings.put(key, new Listing(length, lastModified, new ArrayList<>(resources)));
+      dirty = true;
+    }
+    return resources;
+  }
+
+  /**
+   * 把新的扫描结果写入快照文件，没有新的扫描结果时不写入
+   */
+  public void flush() {
+    synchronized (listings) {
+      if (dirty) {
+        save();
+        dirty = false;
+      }
+    }
+  }
+
+  /**
+   * 返回 URL 所在的本地 Jar 文件，URL 不在本地 Jar 文件中时返回 null
+   */
+  private static File jarFileOf(URL url) {
+    String spec = url.toExternalForm();
+    if (spec.startsWith("jar:")) {
+      int separator = spec.indexOf("!/");
+      if (separator < 0) {
+        return null;
+      }
+      spec = spec.substring("jar:".length(), separator);
+    }
+    if (!spec.startsWith("file:")) {
+      return null;
+    }
+    try {
+      File file = new File(new URI(spec));
+      return file.isFile() ? file : null;
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private void load() {
+    if (!snapshotFile.isFile()) {
+      return;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotFile.toPath()));
+         DataInputStream data = new DataInputStream(in)) {
+      if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+        log.debug("Ignoring VFS snapshot " + snapshotFile + " written by another version.");
+        return;
+      }
+      Map<String, Listing> loaded = new HashMap<>();
+      for (int i = data.readInt(); i > 0; i--) {
+        String key = data.readUTF();
+        long length = data.readLong();
+        long lastModified = data.readLong();
+        int count = data.readInt();
+        List<String> resources = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+          resources.add(data.readUTF());
+        }
+        loaded.put(key, new Listing(length, lastModified, resources));
+      }
+      listings.putAll(loaded);
+    } catch (IOException e) {
+      log.debug("Ignoring unreadable VFS snapshot " + snapshotFile + ". Cause: " + e);
+    }
+  }
+
+  // 先写入临时文件再替换，其他进程不会读到写了一半的快照
+  private void save() {
+    Path target = snapshotFile.toPath().toAbsolutePath();
+    Path temp = null;
+    try {
+      Files.createDirectories(target.getParent());
+      temp = Files.createTempFile(target.getParent(), snapshotFile.getName(), ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp));
+           DataOutputStream data = new DataOutputStream(out)) {
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(listings.size());
+        for (Map.Entry<String, Listing> entry : listings.entrySet()) {
+          Listing listing = entry.getValue();
+          data.writeUTF(entry.getKey());
+          data.writeLong(listing.length);
+          data.writeLong(listing.lastModified);
+          data.writeInt(listing.resources.size());
+          for (String resource : listing.resources) {
+            data.writeUTF(resource);
+          }
+        }
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      log.debug("Could not write VFS snapshot " + snapshotFile + ". Cause: " + e);
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+          // nothing more to do
+        }
+      }
+    }
+  }
+
+  private static final class Listing {
+    private final long length;
+    private final long lastModified;
+    private final List<String> resources;
+
+    Listing(long length, long lastModified, List<String> resources) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.resources = Collections.unmodifiableList(resources);
+    }
+  }
+
+}
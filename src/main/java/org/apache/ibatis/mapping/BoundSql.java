@@ -71,6 +71,9 @@ public class BoundSql {
   }
 
   public boolean hasAdditionalParameter(String name) {
+    if (additionalParameters.isEmpty()) {
+      return false;
+    }
     String paramName = new PropertyTokenizer(name).getName();
     return additionalParameters.containsKey(paramName);
   }
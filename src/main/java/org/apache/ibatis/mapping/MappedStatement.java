@@ -18,11 +18,14 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.parameter.ParameterAccessor;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
@@ -63,6 +66,8 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  // 参数类型 -> 该类型参数对象的属性取值方式，执行语句时按需创建
+  private final Map<Class<?>, ParameterAccessor> parameterAccessors = new ConcurrentHashMap<>();
 
   MappedStatement() {
     // constructor disabled
@@ -326,6 +331,19 @@ public final class MappedStatement {
     return boundSql;
   }
 
+  /**
+   * Returns how the properties of parameter objects of the given type are read when binding this statement.
+   *
+   * @since 3.5.4
+   */
+  public ParameterAccessor getParameterAccessor(Class<?> parameterType) {
+    ParameterAccessor accessor = parameterAccessors.get(parameterType);
+    if (accessor == null) {
+      accessor = parameterAccessors.computeIfAbsent(parameterType, type -> new ParameterAccessor(configuration, type));
+    }
+    return accessor;
+  }
+
   private static String[] delimitedStringToArray(String in) {
     if (in == null || in.trim().length() == 0) {
       return null;
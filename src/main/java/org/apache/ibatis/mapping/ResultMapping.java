@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.ibatis.reflection.CompiledPropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -65,6 +66,12 @@ public class ResultMapping {
   private String foreignColumn;
   // 是否延迟加载，对应节点 fetchType 属性
   private boolean lazy;
+  // 对应节点的 batchSelect 属性，按多个 key 一次查询的 select 语句
+  private String nestedBatchQueryId;
+  // 对应节点的 batchKey 属性，batchSelect 结果对象中与 column 值对应的属性
+  private String batchKey;
+  // 预先解析的 property 属性，结果映射时给结果对象赋值
+  private CompiledPropertyPath propertyPath;
 
   ResultMapping() {
   }
@@ -152,12 +159,25 @@ public class ResultMapping {
       return this;
     }
 
+    public Builder nestedBatchQueryId(String nestedBatchQueryId) {
+      resultMapping.nestedBatchQueryId = nestedBatchQueryId;
+      return this;
+    }
+
+    public Builder batchKey(String batchKey) {
+      resultMapping.batchKey = batchKey;
+      return this;
+    }
+
     public ResultMapping build() {
       // lock down collections
       resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
       resultMapping.composites = Collections.unmodifiableList(resultMapping.composites);
       resolveTypeHandler();
       validate();
+      if (resultMapping.property != null) {
+        resultMapping.propertyPath = resultMapping.configuration.newPropertyPath(resultMapping.property);
+      }
       return resultMapping;
     }
 
@@ -187,6 +207,14 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      if (resultMapping.nestedBatchQueryId != null) {
+        if (resultMapping.nestedQueryId == null) {
+          throw new IllegalStateException("Cannot define batchSelect without select in property " + resultMapping.property);
+        }
+        if (resultMapping.batchKey == null) {
+          throw new IllegalStateException("Mapping is missing batchKey attribute for batchSelect in property " + resultMapping.property);
+        }
+      }
     }
 
     private void resolveTypeHandler() {
@@ -207,6 +235,13 @@ public class ResultMapping {
     return property;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public CompiledPropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   public String getColumn() {
     return column;
   }
@@ -271,6 +306,20 @@ public class ResultMapping {
     this.lazy = lazy;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public String getNestedBatchQueryId() {
+    return nestedBatchQueryId;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public String getBatchKey() {
+    return batchKey;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -314,6 +363,8 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", nestedBatchQueryId='").append(nestedBatchQueryId).append('\'');
+    sb.append(", batchKey='").append(batchKey).append('\'');
     sb.append('}');
     return sb.toString();
   }
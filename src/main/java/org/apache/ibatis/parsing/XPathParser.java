@@ -200,6 +200,13 @@ public class XPathParser {
 
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    List<Node> elements = selectElements(root, expression);
+    if (elements != null) {
+      for (Node element : elements) {
+        xnodes.add(new XNode(this, element, variables));
+      }
+      return xnodes;
+    }
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
     for (int i = 0; i < nodes.getLength(); i++) {
       xnodes.add(new XNode(this, nodes.item(i), variables));
@@ -212,15 +219,102 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    Node node;
+    List<Node> elements = selectElements(root, expression);
+    if (elements != null) {
+      node = elements.isEmpty() ? null : elements.get(0);
+    } else {
+      node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    }
     if (node == null) {
       return null;
     }
     return new XNode(this, node, variables);
   }
 
+  /**
+   * 表达式只由元素名称组成时（如 /mapper/resultMap、selectKey、select|insert|update|delete），直接遍历 DOM 的子元素，
+   * 结果与 XPath 相同，按文档顺序排列；Mapper 和配置文件的解析只用到这类表达式，不必每次都由 XPath 编译、计算。
+   * 其他表达式返回 null，交给 XPath 处理
+   */
+  private static List<Node> selectElements(Object root, String expression) {
+    if (!(root instanceof Node) || expression.isEmpty()) {
+      return null;
+    }
+    Node context = (Node) root;
+    String path = expression;
+    if (path.charAt(0) == '/') {
+      if (context.getNodeType() != Node.DOCUMENT_NODE) {
+        context = context.getOwnerDocument();
+      }
+      path = path.substring(1);
+    }
+    String[][] steps;
+    if (path.indexOf('|') >= 0) {
+      // 只处理同一层级的并集，a/b|c 的含义是 (a/b)|c
+      if (path.length() < expression.length() || path.indexOf('/') >= 0) {
+        return null;
+      }
+      steps = new String[][] { path.split("\\|", -1) };
+    } else {
+      String[] names = path.split("/", -1);
+      steps = new String[names.length][];
+      for (int i = 0; i < names.length; i++) {
+        steps[i] = new String[] { names[i] };
+      }
+    }
+    for (String[] names : steps) {
+      for (String name : names) {
+        if (!isElementName(name)) {
+          return null;
+        }
+      }
+    }
+    List<Node> current = new ArrayList<>();
+    current.add(context);
+    for (String[] names : steps) {
+      List<Node> next = new ArrayList<>();
+      for (Node parent : current) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+          if (child.getNodeType() == Node.ELEMENT_NODE && matches(child.getNodeName(), names)) {
+            next.add(child);
+          }
+        }
+      }
+      current = next;
+    }
+    return current;
+  }
+
+  private static boolean matches(String nodeName, String[] names) {
+    for (String name : names) {
+      if (name.equals(nodeName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // 不带前缀的元素名称；含有 *、@、()、[]、: 等的表达式交给 XPath
+  private static boolean isElementName(String name) {
+    if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+      return false;
+    }
+    for (int i = 1; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private Object evaluate(String expression, Object root, QName returnType) {
     try {
+      if (xpath == null) {
+        // XPathFactory 的查找比较耗时，只在用到 XPath 时创建
+        xpath = XPathFactory.newInstance().newXPath();
+      }
       return xpath.evaluate(expression, root, returnType);
     } catch (Exception e) {
       throw new BuilderException("Error evaluating XPath.  Cause: " + e, e);
@@ -268,8 +362,6 @@ public class XPathParser {
     this.validation = validation;
     this.entityResolver = entityResolver;
     this.variables = variables;
-    XPathFactory factory = XPathFactory.newInstance();
-    this.xpath = factory.newXPath();
   }
 
 }
@@ -26,21 +26,49 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  // 与 interceptors 一一对应，记录拦截器 @Signature 注解中声明的类型；
+  // 拦截器自定义了 plugin() 方法或者无法解析注解时为 null，此时总是调用 plugin() 方法
+  private final List<Class<?>[]> interceptedTypes = new ArrayList<>();
 
   /**
-   * 为被拦截对象，添加拦截器
+   * 为被拦截对象，添加拦截器。被拦截对象不是拦截器声明的任何类型时跳过该拦截器，不调用 plugin() 方法
    * @param target 被拦截对象
    * @return
    */
   public Object pluginAll(Object target) {
-    for (Interceptor interceptor : interceptors) {
-      target = interceptor.plugin(target);
+    for (int i = 0; i < interceptors.size(); i++) {
+      Class<?>[] types = interceptedTypes.get(i);
+      if (types == null || isInstance(types, target)) {
+        target = interceptors.get(i).plugin(target);
+      }
     }
     return target;
   }
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    interceptedTypes.add(resolveInterceptedTypes(interceptor));
+  }
+
+  private static Class<?>[] resolveInterceptedTypes(Interceptor interceptor) {
+    try {
+      if (interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass() != Interceptor.class) {
+        return null;
+      }
+      return Plugin.getSignatureMap(interceptor).keySet().toArray(new Class<?>[0]);
+    } catch (NoSuchMethodException | PluginException e) {
+      // 由 plugin() 方法在创建代理时抛出异常
+      return null;
+    }
+  }
+
+  private static boolean isInstance(Class<?>[] types, Object target) {
+    for (Class<?> type : types) {
+      if (type.isInstance(target)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public List<Interceptor> getInterceptors() {
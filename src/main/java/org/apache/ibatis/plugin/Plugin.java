@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
@@ -30,6 +31,22 @@ import org.apache.ibatis.reflection.ExceptionUtil;
  * @author Clinton Begin
  */
 public class Plugin implements InvocationHandler {
+  // 拦截器类型 -> 拦截器 @Signature 注解中的信息，每种拦截器只解析一次注解
+  // 使用 ClassValue 将缓存挂在拦截器类型上，不会阻止拦截器所在的类加载器被回收
+  private static final ClassValue<Map<Class<?>, Set<Method>>> signatureMaps = new ClassValue<Map<Class<?>, Set<Method>>>() {
+    @Override
+    protected Map<Class<?>, Set<Method>> computeValue(Class<?> interceptorType) {
+      return parseSignatureMap(interceptorType);
+    }
+  };
+  // 拦截器类型 -> (被拦截对象的类型 -> 代理需要实现的接口，不需要创建代理时为空数组)
+  private static final ClassValue<Map<Class<?>, Class<?>[]>> proxyInterfaces = new ClassValue<Map<Class<?>, Class<?>[]>>() {
+    @Override
+    protected Map<Class<?>, Class<?>[]> computeValue(Class<?> interceptorType) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
   // 被拦截对象
   private final Object target;
   // 拦截器
@@ -54,8 +71,9 @@ public class Plugin implements InvocationHandler {
     Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
     // 获取目标类型
     Class<?> type = target.getClass();
-    // 获取被拦截对象的具体实现类
-    Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
+    // 获取被拦截对象的具体实现类，同一拦截器与被拦截对象类型的组合只查找一次接口
+    Class<?>[] interfaces = proxyInterfaces.get(interceptor.getClass())
+        .computeIfAbsent(type, k -> getAllInterfaces(type, signatureMap));
     if (interfaces.length > 0) {
       // 通过动态代理的方式创建代理对象
       return Proxy.newProxyInstance(
@@ -95,11 +113,15 @@ public class Plugin implements InvocationHandler {
    * @param interceptor
    * @return
    */
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
-    Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
+  static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
+    return signatureMaps.get(interceptor.getClass());
+  }
+
+  private static Map<Class<?>, Set<Method>> parseSignatureMap(Class<?> interceptorType) {
+    Intercepts interceptsAnnotation = interceptorType.getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
-      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptor.getClass().getName());
+      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorType.getName());
     }
     Signature[] sigs = interceptsAnnotation.value();
     Map<Class<?>, Set<Method>> signatureMap = new HashMap<>();
@@ -47,10 +47,18 @@ public class DefaultReflectorFactory implements ReflectorFactory {
 //      attempts to compute its value using the given mapping function
 //      and enters it into this map unless {@code null}.
 //      absent 缺席的;如果type值不存在,就应用后面的函数,计算出来,计算结果非空,放入map中;并返回计算值;
-      return reflectorMap.computeIfAbsent(type, Reflector::new);
+      return reflectorMap.computeIfAbsent(type, this::newReflector);
     } else {
-      return new Reflector(type);
+      return newReflector(type);
     }
   }
 
+  /**
+   * 创建类对应的 Reflector，子类可以覆盖以改变 Reflector 的创建方式
+   * @since 3.5.4
+   */
+  protected Reflector newReflector(Class<?> type) {
+    return new Reflector(type);
+  }
+
 }
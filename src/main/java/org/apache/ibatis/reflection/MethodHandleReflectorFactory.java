@@ -0,0 +1,34 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+/**
+ * 创建的 Reflector 通过 MethodHandle 访问 getter、setter 方法和字段，代替 Method.invoke、Field.get/set，
+ * 结果映射、参数绑定和 MetaObject 的属性读写都会经过这些 Invoker。
+ * 无法创建 MethodHandle 的成员（静态方法、final 字段、无访问权限等）仍使用反射方式调用。
+ * <p>
+ * 在 mybatis-config.xml 中通过 &lt;reflectorFactory type="org.apache.ibatis.reflection.MethodHandleReflectorFactory"/&gt; 启用。
+ *
+ * @since 3.5.4
+ */
+public class MethodHandleReflectorFactory extends DefaultReflectorFactory {
+
+  @Override
+  protected Reflector newReflector(Class<?> type) {
+    return new Reflector(type, true);
+  }
+
+}
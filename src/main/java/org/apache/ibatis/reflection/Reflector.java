@@ -37,6 +37,9 @@ import java.util.Map.Entry;
 import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleGetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleSetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
@@ -62,9 +65,21 @@ public class Reflector {
   private Constructor<?> defaultConstructor;
 
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();  //元素为属性大小写不敏感的; ID :id
+  // 是否使用 MethodHandle 创建 getter、setter、字段的 Invoker
+  private final boolean methodHandleInvokers;
 
   public Reflector(Class<?> clazz) {
+    this(clazz, false);
+  }
+
+  /**
+   * @param clazz 类
+   * @param methodHandleInvokers 为 true 时，getter、setter 方法和字段的 Invoker 通过 MethodHandle 调用，而不是 Method.invoke、Field.get/set
+   * @since 3.5.4
+   */
+  public Reflector(Class<?> clazz, boolean methodHandleInvokers) {
     type = clazz;
+    this.methodHandleInvokers = methodHandleInvokers;
     addDefaultConstructor(clazz); //赋值默认的构造函数
     addGetMethods(clazz);
     addSetMethods(clazz);
@@ -157,7 +172,7 @@ public class Reflector {
         ? new AmbiguousMethodInvoker(method, MessageFormat.format(
             "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
             name, method.getDeclaringClass().getName()))
-        : new MethodInvoker(method);
+        : newMethodInvoker(method);
     getMethods.put(name, invoker);
     // 查找 getter 方法的 返回数据类型
     Type returnType = TypeParameterResolver.resolveReturnType(method, type);
@@ -240,12 +255,16 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    MethodInvoker invoker = newMethodInvoker(method);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
   }
 
+  private MethodInvoker newMethodInvoker(Method method) {
+    return methodHandleInvokers ? MethodHandleMethodInvoker.create(method) : new MethodInvoker(method);
+  }
+
   //将一个类型，转化为相应的class类
   private Class<?> typeToClass(Type src) {
     Class<?> result = null;
@@ -297,7 +316,7 @@ public class Reflector {
    */
   private void addSetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      setMethods.put(field.getName(), new SetFieldInvoker(field));
+      setMethods.put(field.getName(), methodHandleInvokers ? MethodHandleSetFieldInvoker.create(field) : new SetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       setTypes.put(field.getName(), typeToClass(fieldType));
     }
@@ -309,7 +328,7 @@ public class Reflector {
    */
   private void addGetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      getMethods.put(field.getName(), new GetFieldInvoker(field));
+      getMethods.put(field.getName(), methodHandleInvokers ? MethodHandleGetFieldInvoker.create(field) : new GetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       getTypes.put(field.getName(), typeToClass(fieldType));
     }
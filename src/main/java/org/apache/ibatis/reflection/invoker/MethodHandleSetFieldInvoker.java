@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.apache.ibatis.lang.UsesJava8;
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * 通过 MethodHandle 给类字段赋值
+ *
+ * @since 3.5.4
+ */
+public class MethodHandleSetFieldInvoker extends SetFieldInvoker {
+
+  // 已适配为 (Object,Object)void 的字段写句柄，静态字段忽略 target
+  private final MethodHandle handle;
+
+  private MethodHandleSetFieldInvoker(Field field, MethodHandle handle) {
+    super(field);
+    if (Modifier.isStatic(field.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    this.handle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+  }
+
+  /**
+   * 为字段创建基于 MethodHandle 的写 Invoker；final 字段或无法转换为句柄时，退回到 SetFieldInvoker
+   * @param field 类字段
+   * @return 字段对应的 Invoker
+   */
+  public static SetFieldInvoker create(Field field) {
+    // final 字段只能通过 Field.set 修改，MethodHandle 不允许写 final 字段
+    if (Modifier.isFinal(field.getModifiers())) {
+      return new SetFieldInvoker(field);
+    }
+    try {
+      return new MethodHandleSetFieldInvoker(field, unreflectSetter(field));
+    } catch (IllegalAccessException | RuntimeException e) {
+      // JDK 9+ 中无法打开的模块成员会抛出 InaccessibleObjectException（RuntimeException），同样退回反射调用
+      return new SetFieldInvoker(field);
+    }
+  }
+
+  private static MethodHandle unreflectSetter(Field field) throws IllegalAccessException {
+    try {
+      return MethodHandles.publicLookup().unreflectSetter(field);
+    } catch (IllegalAccessException e) {
+      if (Reflector.canControlMemberAccessible()) {
+        field.setAccessible(true);
+        return MethodHandles.publicLookup().unreflectSetter(field);
+      } else {
+        throw e;
+      }
+    }
+  }
+
+  // invokeExact 是签名多态方法，animal-sniffer 无法识别，需要标注 UsesJava8 跳过检查
+  @UsesJava8
+  @Override
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException {
+    try {
+      handle.invokeExact(target, args[0]);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new UndeclaredThrowableException(t);
+    }
+    return null;
+  }
+}
@@ -20,17 +20,16 @@ import java.sql.SQLException;
 import java.util.List;
 
 import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.parameter.ParameterAccessor;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
-import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  *
@@ -40,8 +39,6 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  * @author Eduardo Macarron
  */
 public class DefaultParameterHandler implements ParameterHandler {
-  // TypeHandlerRegistry 对象，管理 MyBatis 中的 全部 TypeHandler 对象
-  private final TypeHandlerRegistry typeHandlerRegistry;
   // MappedSt tement 对象，其中记录 SQL 节点相应的配置信息
   private final MappedStatement mappedStatement;
   // 用户传入的实参对象
@@ -53,7 +50,6 @@ public class DefaultParameterHandler implements ParameterHandler {
   public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     this.mappedStatement = mappedStatement;
     this.configuration = mappedStatement.getConfiguration();
-    this.typeHandlerRegistry = mappedStatement.getConfiguration().getTypeHandlerRegistry();
     this.parameterObject = parameterObject;
     this.boundSql = boundSql;
   }
@@ -74,6 +70,9 @@ public class DefaultParameterHandler implements ParameterHandler {
     // 取出 sql 中的参数映射列表
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
+      // 参数对象中属性的取值方式按语句和参数类型缓存，不再为每个参数创建 MetaObject
+      ParameterAccessor parameterAccessor = parameterObject == null ? null
+          : mappedStatement.getParameterAccessor(parameterObject.getClass());
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         // 过滤掉存储过程中的输出参数
@@ -88,13 +87,9 @@ public class DefaultParameterHandler implements ParameterHandler {
           //  整个实参为空
           } else if (parameterObject == null) {
             value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            // 实参可以直接通过 TypeHandler 转换成 JdbcType
-            value = parameterObject;
           } else {
-            // 获取对象中相应的属性位或查找 Map 对象中位
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
+            // 实参可以直接通过 TypeHandler 转换成 JdbcType 时为实参本身，否则获取对象中相应的属性位或查找 Map 对象中位
+            value = parameterAccessor.getValue(parameterObject, propertyName);
           }
           // 获取 ParameterMapping 中设置的 TypeHandler 对象
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
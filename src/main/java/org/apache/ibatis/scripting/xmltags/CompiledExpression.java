@@ -0,0 +1,319 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ognl.ASTChain;
+import ognl.ASTConst;
+import ognl.ASTMethod;
+import ognl.ASTProperty;
+import ognl.Node;
+import ognl.OgnlContext;
+import ognl.OgnlException;
+import ognl.OgnlOps;
+
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+/**
+ * 将 OGNL 表达式中常用的子集（常量、属性路径、比较运算、and/or/not 以及 size()/isEmpty()/length() 方法）
+ * 编译为直接访问属性的求值器，避免每次求值时通过 OGNL 解释执行语法树。
+ * 运算符的语义与 OGNL 完全一致（均通过 OgnlOps 实现）。包含不支持的语法的表达式整体回退到 OGNL，
+ * 运行时遇到不支持的参数类型时，只由 OGNL 在已经取得的值上计算这一步，已经调用过的 getter 不会再次调用。
+ * 属性通过调用方传入的 ReflectorFactory（即 Configuration 中配置的 ReflectorFactory）访问。
+ *
+ * @since 3.5.4
+ */
+final class CompiledExpression {
+
+  /**
+   * 表达式包含不支持的语法，需要回退到 OGNL
+   */
+  static final Object FALLBACK = new Object();
+
+  private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+  // OGNL 的 MapPropertyAccessor 对这些属性名做了特殊处理
+  private static final Set<String> MAP_PROPERTIES = new HashSet<>(Arrays.asList("size", "keys", "keySet", "values", "isEmpty"));
+  private static final Set<String> METHODS = new HashSet<>(Arrays.asList("size", "isEmpty", "length"));
+  // 编译后的求值器不支持当前的参数类型，需要由 OGNL 计算这一步
+  private static final Object UNSUPPORTED = new Object();
+
+  // OGNL 解析后的语法树，回退到 OGNL 时使用
+  private final Object tree;
+  private final Evaluator evaluator;
+
+  private CompiledExpression(Object tree, Evaluator evaluator) {
+    this.tree = tree;
+    this.evaluator = evaluator;
+  }
+
+  /**
+   * 编译 OGNL 解析后的语法树，表达式中包含不支持的语法时，返回的对象总是回退到 OGNL
+   */
+  static CompiledExpression compile(Object tree) {
+    Evaluator evaluator = tree instanceof Node ? compileNode((Node) tree) : null;
+    return new CompiledExpression(tree, evaluator);
+  }
+
+  Object getTree() {
+    return tree;
+  }
+
+  boolean isCompiled() {
+    return evaluator != null;
+  }
+
+  /**
+   * 计算表达式的值，表达式包含不支持的语法时返回 {@link #FALLBACK}。
+   * 属性不存在、值为 null 或者集合等由 OGNL 专门处理的类型，只将当前这一步（属性或方法）交给 OGNL，
+   * 在前面的步骤已经取得的值上计算，整个表达式的每个 getter 最多调用一次
+   */
+  Object getValue(Object root, ReflectorFactory reflectorFactory) throws Exception {
+    if (evaluator == null) {
+      return FALLBACK;
+    }
+    return evaluator.evaluate(new Evaluation(root, reflectorFactory));
+  }
+
+  private static Evaluator compileNode(Node node) {
+    switch (node.getClass().getSimpleName()) {
+      case "ASTConst":
+        Object value = ((ASTConst) node).getValue();
+        if (value == null || value instanceof String || value instanceof Number
+            || value instanceof Boolean || value instanceof Character) {
+          return evaluation -> value;
+        }
+        return null;
+      case "ASTProperty":
+      case "ASTMethod":
+      case "ASTChain":
+        return compileChain(node);
+      case "ASTAnd":
+        return compileLogical(node, false);
+      case "ASTOr":
+        return compileLogical(node, true);
+      case "ASTNot":
+        Evaluator[] operand = compileChildren(node, 1);
+        return operand == null ? null
+            : evaluation -> OgnlOps.booleanValue(operand[0].evaluate(evaluation)) ? Boolean.FALSE : Boolean.TRUE;
+      case "ASTEq":
+        return compileComparison(node, (left, right) -> OgnlOps.equal(left, right));
+      case "ASTNotEq":
+        return compileComparison(node, (left, right) -> !OgnlOps.equal(left, right));
+      case "ASTLess":
+        return compileComparison(node, OgnlOps::less);
+      case "ASTGreater":
+        return compileComparison(node, OgnlOps::greater);
+      case "ASTLessEq":
+        return compileComparison(node, (left, right) -> !OgnlOps.greater(left, right));
+      case "ASTGreaterEq":
+        return compileComparison(node, (left, right) -> !OgnlOps.less(left, right));
+      default:
+        return null;
+    }
+  }
+
+  private static Evaluator[] compileChildren(Node node, int expected) {
+    int count = node.jjtGetNumChildren();
+    if (expected >= 0 && count != expected || count == 0) {
+      return null;
+    }
+    Evaluator[] children = new Evaluator[count];
+    for (int i = 0; i < count; i++) {
+      children[i] = compileNode(node.jjtGetChild(i));
+      if (children[i] == null) {
+        return null;
+      }
+    }
+    return children;
+  }
+
+  private static Evaluator compileLogical(Node node, boolean or) {
+    Evaluator[] children = compileChildren(node, -1);
+    if (children == null) {
+      return null;
+    }
+    // 与 OGNL 一致，返回最后一个参与计算的操作数的值，而不是 Boolean
+    return evaluation -> {
+      Object result = null;
+      for (int i = 0; i < children.length; i++) {
+        result = children[i].evaluate(evaluation);
+        if (i != children.length - 1 && OgnlOps.booleanValue(result) == or) {
+          break;
+        }
+      }
+      return result;
+    };
+  }
+
+  private static Evaluator compileComparison(Node node, Comparison comparison) {
+    Evaluator[] children = compileChildren(node, 2);
+    if (children == null) {
+      return null;
+    }
+    Evaluator left = children[0];
+    Evaluator right = children[1];
+    return evaluation -> comparison.compare(left.evaluate(evaluation), right.evaluate(evaluation)) ? Boolean.TRUE : Boolean.FALSE;
+  }
+
+  private static Evaluator compileChain(Node node) {
+    List<Step> steps = new ArrayList<>();
+    if (node instanceof ASTChain) {
+      for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+        steps.add(compileStep(node.jjtGetChild(i)));
+      }
+    } else {
+      steps.add(compileStep(node));
+    }
+    if (steps.isEmpty() || steps.contains(null)) {
+      return null;
+    }
+    Step[] chain = steps.toArray(new Step[0]);
+    if (chain.length == 1) {
+      Step step = chain[0];
+      return evaluation -> step.apply(evaluation.root, evaluation);
+    }
+    return evaluation -> {
+      Object target = evaluation.root;
+      for (Step step : chain) {
+        target = step.apply(target, evaluation);
+      }
+      return target;
+    };
+  }
+
+  private static Step compileStep(Node node) {
+    if (node instanceof ASTProperty) {
+      ASTProperty property = (ASTProperty) node;
+      if (property.isIndexedAccess() || property.jjtGetNumChildren() != 1 || !(property.jjtGetChild(0) instanceof ASTConst)) {
+        return null;
+      }
+      Object name = ((ASTConst) property.jjtGetChild(0)).getValue();
+      if (!(name instanceof String)) {
+        return null;
+      }
+      return (target, evaluation) -> {
+        Object value = getProperty(target, (String) name, evaluation.reflectorFactory);
+        return value != UNSUPPORTED ? value : evaluation.evaluateStep(node, target);
+      };
+    }
+    if (node instanceof ASTMethod) {
+      String name = ((ASTMethod) node).getMethodName();
+      if (node.jjtGetNumChildren() != 0 || !METHODS.contains(name)) {
+        return null;
+      }
+      return (target, evaluation) -> {
+        Object value = invokeMethod(target, name);
+        return value != UNSUPPORTED ? value : evaluation.evaluateStep(node, target);
+      };
+    }
+    return null;
+  }
+
+  private static Object getProperty(Object target, String name, ReflectorFactory reflectorFactory) throws Exception {
+    if (target instanceof DynamicContext.ContextMap) {
+      return CONTEXT_ACCESSOR.getProperty(null, (Map) target, name);
+    }
+    // 集合、数组等类型在 OGNL 中有专门的 PropertyAccessor，交由 OGNL 处理
+    if (target == null || target instanceof Collection || target instanceof Iterator
+        || target instanceof Enumeration || target.getClass().isArray()) {
+      return UNSUPPORTED;
+    }
+    if (target instanceof Map) {
+      if (MAP_PROPERTIES.contains(name)) {
+        return UNSUPPORTED;
+      }
+      return ((Map<?, ?>) target).get(name);
+    }
+    Reflector reflector = reflectorFactory.findForClass(target.getClass());
+    if (!reflector.hasGetter(name)) {
+      return UNSUPPORTED;
+    }
+    return reflector.getGetInvoker(name).invoke(target, null);
+  }
+
+  private static Object invokeMethod(Object target, String name) {
+    if (target instanceof Collection) {
+      Collection<?> collection = (Collection<?>) target;
+      if ("size".equals(name)) {
+        return collection.size();
+      } else if ("isEmpty".equals(name)) {
+        return collection.isEmpty();
+      }
+    } else if (target instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) target;
+      if ("size".equals(name)) {
+        return map.size();
+      } else if ("isEmpty".equals(name)) {
+        return map.isEmpty();
+      }
+    } else if (target instanceof String) {
+      String string = (String) target;
+      if ("length".equals(name)) {
+        return string.length();
+      } else if ("isEmpty".equals(name)) {
+        return string.isEmpty();
+      }
+    }
+    return UNSUPPORTED;
+  }
+
+  @FunctionalInterface
+  private interface Evaluator {
+    Object evaluate(Evaluation evaluation) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface Step {
+    Object apply(Object target, Evaluation evaluation) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface Comparison {
+    boolean compare(Object left, Object right);
+  }
+
+  /**
+   * 一次求值的状态，OgnlContext 在第一次需要由 OGNL 计算某一步时才创建
+   */
+  private static final class Evaluation {
+    private final Object root;
+    private final ReflectorFactory reflectorFactory;
+    private OgnlContext context;
+
+    Evaluation(Object root, ReflectorFactory reflectorFactory) {
+      this.root = root;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    Object evaluateStep(Node node, Object target) throws OgnlException {
+      if (context == null) {
+        context = OgnlCache.createContext(root);
+      }
+      return node.getValue(context, target);
+    }
+  }
+
+}
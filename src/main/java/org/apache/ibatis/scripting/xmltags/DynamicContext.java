@@ -15,14 +15,16 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
 
 import ognl.OgnlContext;
 import ognl.OgnlRuntime;
 import ognl.PropertyAccessor;
 
+import org.apache.ibatis.builder.ParameterTemplate;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
@@ -36,14 +38,26 @@ public class DynamicContext {
   public static final String PARAMETER_OBJECT_KEY = "_parameter";
   public static final String DATABASE_ID_KEY = "_databaseId";
 
+  // 收集 ParameterTemplate 时预编译的 "#{}" 占位符在 SQL 语句中的标记，生成 SQL 语句后替换为 "?"。
+  // 标记与 SQL 语句中原有的 "?" 区分开，未预编译的 "#{}" 占位符可以在同一结果上解析并按出现顺序与预编译的占位符合并
+  static final char PARAMETER_MARKER = '\uFFFF';
+  private static final String PARAMETER_MARKER_TEXT = String.valueOf(PARAMETER_MARKER);
+
   static {
     OgnlRuntime.setPropertyAccessor(ContextMap.class, new ContextAccessor());
   }
 
   private final ContextMap bindings;  // 参数上下文,被赋值为 ContextMap 对象;
-  // 在 SqlNode 解析动态 SQL 时，会将解析后的 SQL 语句片段添加到改属性中保存，最终拼凑出一条完成的 SQL 语句
-  private final StringJoiner sqlBuilder = new StringJoiner(" ");
+  // 在 SqlNode 解析动态 SQL 时，会将解析后的 SQL 语句片段以空格分隔添加到改属性中保存，最终拼凑出一条完成的 SQL 语句
+  private final StringBuilder sqlBuilder;
+  private boolean sqlAppended;
   private int uniqueNumber = 0;
+  // 预编译的 "#{}" 占位符，按照 "?" 在 SQL 语句中出现的顺序记录，为 null 时 "#{}" 占位符以原始文本输出
+  private List<ParameterTemplate> parameterTemplates;
+  // 是否追加了未预编译的 "#{}" 占位符，例如来自自定义 SqlNode 或者 "${}" 占位符的值
+  private boolean rawPlaceholders;
+  // SQL 语句的"形状"：按顺序记录追加的 SQL 片段和预编译的 "#{}" 占位符，形状相同的语句生成的 SQL 语句和占位符完全相同
+  private List<Object> shape;
 
   /**
    *
@@ -52,20 +66,26 @@ public class DynamicContext {
    */
   public DynamicContext(Configuration configuration, Object parameterObject) {
     if (parameterObject != null && !(parameterObject instanceof Map)) {
-      // 对于非 Map 类型的参数，会创建对应的 MetaObject 对象，并封装成 ContextMap 对象
-      MetaObject metaObject = configuration.newMetaObject(parameterObject);
-      boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
-      // 初始化 bindings 集合
-      bindings = new ContextMap(metaObject, existsTypeHandler);
+      // 对于非 Map 类型的参数，第一次从参数中读取属性时才会创建对应的 MetaObject 对象，并封装成 ContextMap 对象
+      bindings = new ContextMap(configuration, parameterObject);
     } else {
-      bindings = new ContextMap(null, false);
+      bindings = new ContextMap(null, null);
     }
+    sqlBuilder = new StringBuilder();
     // PARAMETER_OBJECT_KEY _parameter -> parameterObject,这一对应关系添加到 bindings 集合中；
     bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
     // dataBaseId 放入集合中
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
   }
 
+  /**
+   * 供代理其他 DynamicContext 的子类使用，这些子类覆盖了所有访问 bindings 和 SQL 语句的方法，因此不创建这两者
+   */
+  DynamicContext() {
+    bindings = null;
+    sqlBuilder = null;
+  }
+
   public Map<String, Object> getBindings() {
     return bindings;
   }
@@ -75,12 +95,75 @@ public class DynamicContext {
   }
   // 追加 SQL 片段
   public void appendSql(String sql) {
-    sqlBuilder.add(sql);
+    if (shape != null) {
+      shape.add(sql);
+    }
+    if (parameterTemplates != null && !rawPlaceholders && sql.contains("#{")) {
+      rawPlaceholders = true;
+    }
+    if (sqlAppended) {
+      sqlBuilder.append(' ');
+    }
+    sqlBuilder.append(sql);
+    sqlAppended = true;
+  }
+
+  /**
+   * Returns the text that replaces a precompiled "#{}" placeholder in the SQL, i.e. a marker that is replaced with
+   * {@code ?} once the whole statement is rendered, or {@code null} when the context does not collect parameter
+   * templates and the placeholder must be appended as its original text.
+   *
+   * 返回预编译的 "#{}" 占位符在 SQL 语句中对应的文本
+   *
+   * @param template the precompiled placeholder
+   * @return the placeholder marker, or {@code null} if the context does not collect parameter templates
+   * @since 3.5.4
+   */
+  public String parameterPlaceholder(ParameterTemplate template) {
+    if (parameterTemplates == null) {
+      return null;
+    }
+    parameterTemplates.add(template);
+    if (shape != null) {
+      shape.add(template);
+    }
+    return PARAMETER_MARKER_TEXT;
+  }
+
+  void collectParameterTemplates() {
+    parameterTemplates = new ArrayList<>();
+  }
+
+  List<ParameterTemplate> getParameterTemplates() {
+    return parameterTemplates;
+  }
+
+  boolean hasRawPlaceholders() {
+    return rawPlaceholders;
+  }
+
+  /**
+   * 生成 SQL 语句的同时记录其形状，需要先调用 {@link #collectParameterTemplates()}
+   */
+  void recordShape() {
+    shape = new ArrayList<>();
+  }
+
+  List<Object> getShape() {
+    return shape;
   }
 
   // 获取解析后、完整的 SQL 语句
   public String getSql() {
-    return sqlBuilder.toString().trim();
+    int start = 0;
+    int end = sqlBuilder.length();
+    while (start < end && sqlBuilder.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sqlBuilder.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return sqlBuilder.substring(start, end);
   }
 
   public int getUniqueNumber() {
@@ -89,26 +172,32 @@ public class DynamicContext {
 
   static class ContextMap extends HashMap<String, Object> {
     private static final long serialVersionUID = 2977601501966151582L;
-    private final MetaObject parameterMetaObject;
-    private final boolean fallbackParameterObject;
-
-    public ContextMap(MetaObject parameterMetaObject, boolean fallbackParameterObject) {
-
-      // 用户传入的参数封装成了 MetaObject 对象
-      this.parameterMetaObject = parameterMetaObject;
-      this.fallbackParameterObject = fallbackParameterObject;
+    private final Configuration configuration;
+    private final Object parameterObject;
+    // 用户传入的参数封装成的 MetaObject 对象，第一次读取参数的属性时才创建
+    private MetaObject parameterMetaObject;
+    private boolean fallbackParameterObject;
+
+    public ContextMap(Configuration configuration, Object parameterObject) {
+      this.configuration = configuration;
+      this.parameterObject = parameterObject;
     }
 
     @Override
     public Object get(Object key) {
       String strKey = (String) key;
-      if (super.containsKey(strKey)) {
-        return super.get(strKey);
+      Object value = super.get(strKey);
+      if (value != null || super.containsKey(strKey)) {
+        return value;
       }
 
-      if (parameterMetaObject == null) {
+      if (parameterObject == null) {
         return null;
       }
+      if (parameterMetaObject == null) {
+        parameterMetaObject = configuration.newMetaObject(parameterObject);
+        fallbackParameterObject = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
+      }
 
       if (fallbackParameterObject && !parameterMetaObject.hasGetter(strKey)) {
         return parameterMetaObject.getOriginalObject();
@@ -15,9 +15,18 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.builder.ParameterTemplate;
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -30,6 +39,8 @@ public class DynamicSqlSource implements SqlSource {
   private final Configuration configuration;
   // 待解析的 SqlNode 树的根节点
   private final SqlNode rootSqlNode;
+  // SQL 语句形状与替换标记、解析未预编译占位符之后的 SQL 语句之间的映射，形状由追加的 SQL 片段和预编译的占位符决定
+  private final Map<List<Object>, SqlShape> shapeCache = new ConcurrentHashMap<>();
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
@@ -38,7 +49,83 @@ public class DynamicSqlSource implements SqlSource {
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
+    Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
     // 创建 Dy namicContex 对象， parameterObject 是用户传入的实参
+    DynamicContext context = new DynamicContext(configuration, parameterObject);
+    // 收集文本节点中预编译的 "#{}" 占位符，SqlNode 直接输出占位符的标记，无需再由 SqlSourceBuilder 解析整条 SQL 语句
+    context.collectParameterTemplates();
+    int shapeCacheSize = configuration.getDynamicSqlShapeCacheSize();
+    if (shapeCacheSize > 0) {
+      // 生成 SQL 语句的同时记录其形状，SqlNode 树只解析一次
+      context.recordShape();
+    }
+    rootSqlNode.apply(context);
+    List<Object> shape = context.getShape();
+    // 形状已缓存时直接使用缓存的 SQL 语句和占位符（包括已解析的未预编译占位符），只需绑定参数
+    SqlShape sqlShape = shape == null ? null : shapeCache.get(shape);
+    if (sqlShape == null) {
+      sqlShape = compile(context);
+      if (sqlShape == null) {
+        // SQL 片段中本身就包含占位符的标记字符，无法区分预编译的占位符，重新生成 SQL 语句并整体解析
+        return parse(parameterObject, parameterType);
+      }
+      // 缓存已满时不再缓存新的形状，避免 ${} 占位符的取值或者 <foreach> 的迭代次数过多时占用过多内存
+      if (shape != null && shapeCache.size() < shapeCacheSize) {
+        shapeCache.putIfAbsent(shape, sqlShape);
+      }
+    }
+    return bind(context, sqlShape.sql, sqlShape.parameterTemplates, parameterObject, parameterType);
+  }
+
+  /**
+   * 将预编译占位符的标记替换为 "?"。SQL 语句中存在未预编译的 "#{}" 占位符时（例如自定义 SqlNode、包含转义字符的文本或者
+   * "${}" 占位符的值输出的），在同一次生成的 SQL 语句上解析这些占位符，并与预编译的占位符按出现顺序合并，无需重新生成 SQL 语句。
+   * 标记的个数与预编译的占位符个数不一致时返回 null
+   */
+  private static SqlShape compile(DynamicContext context) {
+    String sql = context.getSql();
+    List<ParameterTemplate> templates = context.getParameterTemplates();
+    int markers = 0;
+    for (int i = sql.indexOf(DynamicContext.PARAMETER_MARKER); i >= 0; i = sql.indexOf(DynamicContext.PARAMETER_MARKER, i + 1)) {
+      markers++;
+    }
+    if (markers != templates.size()) {
+      return null;
+    }
+    if (!context.hasRawPlaceholders()) {
+      return new SqlShape(markers == 0 ? sql : sql.replace(DynamicContext.PARAMETER_MARKER, '?'), templates);
+    }
+    List<ParameterTemplate> parameterTemplates = new ArrayList<>();
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+      parameterTemplates.add(new ParameterTemplate(content));
+      return "?";
+    });
+    // 逐段解析标记之间的文本，保证未预编译的占位符与预编译的占位符按出现顺序排列
+    StringBuilder builder = new StringBuilder(sql.length());
+    int start = 0;
+    for (ParameterTemplate template : templates) {
+      int end = sql.indexOf(DynamicContext.PARAMETER_MARKER, start);
+      builder.append(parser.parse(sql.substring(start, end))).append('?');
+      parameterTemplates.add(template);
+      start = end + 1;
+    }
+    builder.append(parser.parse(sql.substring(start)));
+    return new SqlShape(builder.toString(), parameterTemplates);
+  }
+
+  private BoundSql bind(DynamicContext context, String sql, List<ParameterTemplate> parameterTemplates, Object parameterObject, Class<?> parameterType) {
+    // ParameterMapping 的 javaType 可能由 bindings 中的实参类型决定，因此每次都通过 ParameterTemplate 的缓存获取
+    MetaObject metaParameters = configuration.newMetaObject(context.getBindings());
+    List<ParameterMapping> parameterMappings = new ArrayList<>(parameterTemplates.size());
+    for (ParameterTemplate parameterTemplate : parameterTemplates) {
+      parameterMappings.add(parameterTemplate.build(configuration, parameterType, metaParameters));
+    }
+    BoundSql boundSql = new BoundSql(configuration, sql, parameterMappings, parameterObject);
+    context.getBindings().forEach(boundSql::setAdditionalParameter);
+    return boundSql;
+  }
+
+  private BoundSql parse(Object parameterObject, Class<?> parameterType) {
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     //通过调用 rootSqlNode.apply() 方法调用整个树形结构中全部 SqlNode.apply()方法，
     // 可以体会一下组合设计模式的好处。 每个 SqlNode 的 apply() 方法都将解析得到的 SQL 语句片段追加到 context 中，
@@ -46,7 +133,6 @@ public class DynamicSqlSource implements SqlSource {
     rootSqlNode.apply(context);
     // 创建 SqlSourceBuilder，解析参数属性，并将 SQL 语句中的 "#{}" 占位符替换成 "?" 占位符
     SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
-    Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
     SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
     // 创建 BoundSql 对象 ，并将 DynamicContext.bindings 中的参数信息复制到其 additionalParameters 集合中保存
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
@@ -54,4 +140,14 @@ public class DynamicSqlSource implements SqlSource {
     return boundSql;
   }
 
+  private static class SqlShape {
+    private final String sql;
+    private final List<ParameterTemplate> parameterTemplates;
+
+    SqlShape(String sql, List<ParameterTemplate> parameterTemplates) {
+      this.sql = sql;
+      this.parameterTemplates = parameterTemplates;
+    }
+  }
+
 }
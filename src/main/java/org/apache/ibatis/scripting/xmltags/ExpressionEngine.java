@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+/**
+ * Evaluates the expressions of the XML scripting engine: the {@code test} of {@code <if>} and {@code <when>},
+ * the {@code collection} of {@code <foreach>}, the {@code value} of {@code <bind>} and the {@code ${}} placeholders.
+ * Implementations must be thread safe and should cache whatever they compile from an expression.
+ *
+ * 计算动态 SQL 中的表达式，默认实现为 {@link OgnlExpressionEngine}
+ *
+ * @since 3.5.4
+ */
+public interface ExpressionEngine {
+
+  /**
+   * Evaluates an expression.
+   *
+   * @param expression the expression
+   * @param root the object the expression is evaluated against, usually the bindings of a {@link DynamicContext}
+   * @return the value of the expression
+   */
+  Object getValue(String expression, Object root);
+
+}
@@ -29,9 +29,22 @@ import org.apache.ibatis.builder.BuilderException;
  */
 public class ExpressionEvaluator {
 
+  private final ExpressionEngine expressionEngine;
+
+  public ExpressionEvaluator() {
+    this(OgnlExpressionEngine.SHARED);
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public ExpressionEvaluator(ExpressionEngine expressionEngine) {
+    this.expressionEngine = expressionEngine;
+  }
+
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    // 通过 OGNL 解析表达式的值
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    // 通过 ExpressionEngine（默认为 OGNL）解析表达式的值
+    Object value = expressionEngine.getValue(expression, parameterObject);
     // 处理 Boolean 类型
     if (value instanceof Boolean) {
       return (Boolean) value;
@@ -44,7 +57,7 @@ public class ExpressionEvaluator {
   }
 
   public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = expressionEngine.getValue(expression, parameterObject);
     if (value == null) {
       throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
     }
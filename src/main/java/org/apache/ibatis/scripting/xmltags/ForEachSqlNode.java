@@ -16,7 +16,9 @@
 package org.apache.ibatis.scripting.xmltags;
 
 import java.util.Map;
+import java.util.regex.Pattern;
 
+import org.apache.ibatis.builder.ParameterTemplate;
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
 
@@ -40,21 +42,43 @@ public class ForEachSqlNode implements SqlNode {
   // 在循环结束后要添加的字符串
   private final String close;
   private final String separator; // 循环过程中，每项之间的分隔符
+  // 是否重复最后一项，将迭代次数补齐到 2 的幂，从而减少 IN 条件生成的不同 SQL 语句的个数
+  private final boolean padding;
 
   // index 是当前迭代的次数， item 的值是本次选代的元素。 若迭代集合是 Map ，则 index 是键， item 是值
   private final String item;
   private final String index;
+  // 用于将 "#{item}"、"#{index}" 占位符重命名的正则表达式，在构造方法中预先编译
+  private final Pattern itemPattern;
+  private final Pattern indexPattern;
   private final Configuration configuration;
 
   public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator) {
-    this.evaluator = new ExpressionEvaluator();
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, configuration.getExpressionEngine());
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, ExpressionEngine expressionEngine) {
+    this(configuration, contents, collectionExpression, index, item, open, close, separator, false, expressionEngine);
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public ForEachSqlNode(Configuration configuration, SqlNode contents, String collectionExpression, String index, String item, String open, String close, String separator, boolean padding, ExpressionEngine expressionEngine) {
+    this.evaluator = new ExpressionEvaluator(expressionEngine);
     this.collectionExpression = collectionExpression;
     this.contents = contents;
     this.open = open;
     this.close = close;
     this.separator = separator;
+    this.padding = padding;
     this.index = index;
     this.item = item;
+    this.itemPattern = Pattern.compile("^\\s*" + item + "(?![^.,:\\s])");
+    this.indexPattern = index == null ? null : Pattern.compile("^\\s*" + index + "(?![^.,:\\s])");
     this.configuration = configuration;
   }
 
@@ -70,40 +94,22 @@ public class ForEachSqlNode implements SqlNode {
     boolean first = true;
     //步骤2：在循环开始之前，调用 DynamicContext.appendSql()方法添 open 指定的字符串
     applyOpen(context);
+    // PrefixedContext 和 FilteredDynamicContext 在每次迭代时重置，而不是为每个元素重新创建
+    PrefixedContext prefixedContext = new PrefixedContext(context);
+    FilteredDynamicContext filteredContext = new FilteredDynamicContext(prefixedContext, index, item, indexPattern, itemPattern);
     int i = 0;
+    Object last = null;
     for (Object o : iterable) {
-      // 记录当前 DynamicContext 对象
-      DynamicContext oldContext = context;
-      // 步骤3 ：创建 PrefixedContext ，并让 context 指向该 PrefixedContext 对象
-      if (first || separator == null) {
-        // 如采是集合的第一项，则将 PrefixedContext.prefix 初始化为空字符串
-        // 未指定分隔符，如 PrefixedContext.prefix 初始化为空字符串
-        context = new PrefixedContext(context, "");
-      } else {
-        // 如采指定了分隔符，则 PrefixedContext.prefix 初始化为指定分隔符
-        context = new PrefixedContext(context, separator);
-      }
-      // uniqueNumber 0 开始，每次递增 1，用于转换生成新的"#{}"占位符名称
-      int uniqueNumber = context.getUniqueNumber();
-      // Issue #709
-      if (o instanceof Map.Entry) {
-        // 如采集合是 Map 类型，将集合中 key 和 value 添加到 DynamicContext.bindings 集合中保存
-        @SuppressWarnings("unchecked")
-        Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
-        applyIndex(context, mapEntry.getKey(), uniqueNumber); // 步骤4
-        applyItem(context, mapEntry.getValue(), uniqueNumber); // 步骤5
-      } else {
-        applyIndex(context, i, uniqueNumber);
-        applyItem(context, o, uniqueNumber);
-      }
-      // 步骤6: 调用子节点的 apply()方法进行处理，注意 ，这里使用的 FilteredDynamicContext 对象
-      contents.apply(new FilteredDynamicContext(configuration, context, index, item, uniqueNumber));
-      if (first) {
-        first = !((PrefixedContext) context).isPrefixApplied();
-      }
-      context = oldContext;  // 还原成原来的 content
+      first = applyElement(context, prefixedContext, filteredContext, o, i, first);
+      last = o;
       i++;
     }
+    if (padding) {
+      // 重复最后一项，直到迭代次数为 2 的幂
+      for (int size = paddedSize(i); i < size; i++) {
+        first = applyElement(context, prefixedContext, filteredContext, last, i, first);
+      }
+    }
     // 步骤7：循环结束后，调用 DynamicContext.appendSql() 方法添加 close 指定的字符串
     applyClose(context);
     context.getBindings().remove(item);
@@ -111,17 +117,51 @@ public class ForEachSqlNode implements SqlNode {
     return true;
   }
 
-  private void applyIndex(DynamicContext context, Object o, int i) {
+  private boolean applyElement(DynamicContext context, PrefixedContext prefixedContext,
+      FilteredDynamicContext filteredContext, Object o, int i, boolean first) {
+    // 步骤3 ：重置 PrefixedContext 的前缀
+    if (first || separator == null) {
+      // 如采是集合的第一项，则将 PrefixedContext.prefix 初始化为空字符串
+      // 未指定分隔符，如 PrefixedContext.prefix 初始化为空字符串
+      prefixedContext.reset("");
+    } else {
+      // 如采指定了分隔符，则 PrefixedContext.prefix 初始化为指定分隔符
+      prefixedContext.reset(separator);
+    }
+    // uniqueNumber 0 开始，每次递增 1，用于转换生成新的"#{}"占位符名称
+    int uniqueNumber = context.getUniqueNumber();
+    filteredContext.reset(uniqueNumber);
+    // Issue #709
+    if (o instanceof Map.Entry) {
+      // 如采集合是 Map 类型，将集合中 key 和 value 添加到 DynamicContext.bindings 集合中保存
+      @SuppressWarnings("unchecked")
+      Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
+      applyIndex(context, mapEntry.getKey(), filteredContext.itemizedIndex); // 步骤4
+      applyItem(context, mapEntry.getValue(), filteredContext.itemizedItem); // 步骤5
+    } else {
+      applyIndex(context, i, filteredContext.itemizedIndex);
+      applyItem(context, o, filteredContext.itemizedItem);
+    }
+    // 步骤6: 调用子节点的 apply()方法进行处理，注意 ，这里使用的 FilteredDynamicContext 对象
+    contents.apply(filteredContext);
+    return first && !prefixedContext.isPrefixApplied();
+  }
+
+  private static int paddedSize(int size) {
+    return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+  }
+
+  private void applyIndex(DynamicContext context, Object o, String itemizedIndex) {
     if (index != null) {
       context.bind(index, o);
-      context.bind(itemizeItem(index, i), o);
+      context.bind(itemizedIndex, o);
     }
   }
 
-  private void applyItem(DynamicContext context, Object o, int i) {
+  private void applyItem(DynamicContext context, Object o, String itemizedItem) {
     if (item != null) {
       context.bind(item, o);
-      context.bind(itemizeItem(item, i), o);
+      context.bind(itemizedItem, o);
     }
   }
 
@@ -147,16 +187,36 @@ public class ForEachSqlNode implements SqlNode {
    */
   private static class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;  // 底层封装的 DynamicContext 对象
-    private final int index;  // 对应集合项在集合中的索引位置
     private final String itemIndex; // 对应集合项的 index ，参见对 ForeachSqlNode.index 字段的介绍
     private final String item;  // 对应集合项的 item ，参见对 ForeachSqlNode.item 字段的介绍
+    private final Pattern itemIndexPattern;
+    private final Pattern itemPattern;
+    private final GenericTokenParser parser;
+    // 当前集合项重命名后的 item 和 index，例如 "__frch_item_1"
+    private String itemizedItem;
+    private String itemizedIndex;
 
-    public FilteredDynamicContext(Configuration configuration,DynamicContext delegate, String itemIndex, String item, int i) {
-      super(configuration, null);
+    FilteredDynamicContext(DynamicContext delegate, String itemIndex, String item, Pattern itemIndexPattern, Pattern itemPattern) {
       this.delegate = delegate;
-      this.index = i;
       this.itemIndex = itemIndex;
       this.item = item;
+      this.itemIndexPattern = itemIndexPattern;
+      this.itemPattern = itemPattern;
+      // 创建 GenericTokenParser 解析器，注意这里匿名实现的 TokenHandler 对象
+      this.parser = new GenericTokenParser("#{", "}", content -> {
+        // 对 item 处理
+        String newContent = itemPattern.matcher(content).replaceFirst(itemizedItem);
+        if (itemIndex != null && newContent.equals(content)) {
+          // 对 itemIndex 进行处理
+          newContent = itemIndexPattern.matcher(content).replaceFirst(itemizedIndex);
+        }
+        return "#{" + newContent + "}";
+      });
+    }
+
+    void reset(int i) {
+      this.itemizedItem = itemizeItem(item, i);
+      this.itemizedIndex = itemIndex == null ? null : itemizeItem(itemIndex, i);
     }
 
     @Override
@@ -184,20 +244,25 @@ public class ForEachSqlNode implements SqlNode {
      */
     @Override
     public void appendSql(String sql) {
-      // 创建 GenericTokenParser 解析器，注意这里匿名实现的 TokenHandler 对象
-      GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        // 对 item 处理
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
-        if (itemIndex != null && newContent.equals(content)) {
-          // 对 itemIndex 进行处理
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
-        }
-        return "#{" + newContent + "}";
-      });
+      if (sql != null && !sql.contains("#{")) {
+        // 没有需要重命名的 "#{}" 占位符，直接追加
+        delegate.appendSql(sql);
+        return;
+      }
       // 将解析后的 SQL 语句片段追加到 delegate 中保存
       delegate.appendSql(parser.parse(sql));
     }
 
+    @Override
+    public String parameterPlaceholder(ParameterTemplate template) {
+      // 与 appendSql() 相同，将 "item" 重命名为 "__frch_item_1"
+      ParameterTemplate itemized = template.rename(item, itemizedItem);
+      if (itemIndex != null && itemized == template) {
+        itemized = template.rename(itemIndex, itemizedIndex);
+      }
+      return delegate.parameterPlaceholder(itemized);
+    }
+
     @Override
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
@@ -208,14 +273,16 @@ public class ForEachSqlNode implements SqlNode {
   /**
    * PrefixedContext 继承了 DynamicContext ，同时也是 DynamicContext 的代理类。
    */
-  private class PrefixedContext extends DynamicContext {
+  private static class PrefixedContext extends DynamicContext {
     private final DynamicContext delegate; // 底层封装的 DynamicContext 对象
-    private final String prefix;   // 指定的前缀
+    private String prefix;   // 指定的前缀
     private boolean prefixApplied; // 是否已经处理过前缀
 
-    public PrefixedContext(DynamicContext delegate, String prefix) {
-      super(configuration, null);
+    PrefixedContext(DynamicContext delegate) {
       this.delegate = delegate;
+    }
+
+    void reset(String prefix) {
       this.prefix = prefix;
       this.prefixApplied = false;
     }
@@ -248,6 +315,11 @@ public class ForEachSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
+    @Override
+    public String parameterPlaceholder(ParameterTemplate template) {
+      return delegate.parameterPlaceholder(template);
+    }
+
     @Override
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
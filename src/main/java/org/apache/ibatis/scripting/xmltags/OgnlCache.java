@@ -16,12 +16,18 @@
 package org.apache.ibatis.scripting.xmltags;
 
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 import ognl.Ognl;
+import ognl.OgnlContext;
 import ognl.OgnlException;
 
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ReflectorFactory;
 
 /**
  * Caches OGNL parsed expressions.
@@ -33,7 +39,8 @@ import org.apache.ibatis.builder.BuilderException;
  * Jsp 页面中的 jsp 标签就是一种表达语言。
  *
  * OgnlCache 对原生 OGNL 进行了封装，OGNL 表达式解析过程比较耗时，为了提高效率，
- * OgnlCache 中使用 expressionCache 字段（静态成员，ConcurrentHashMap<String, Object> 对解析后的对象进行缓存。
+ * OgnlCache 中使用 expressionCache 字段（ConcurrentHashMap<String, CompiledExpression>）对解析后的对象进行缓存。
+ * 每个 OgnlExpressionEngine（即每个 Configuration）使用各自的 OgnlCache，缓存的表达式个数有上限，并记录命中、未命中以及淘汰的次数。
  * ConcurrentHashMap 的吨 Object> 对解析 OGNL 达式进行 O
  *
  * Ognl : https://www.jianshu.com/p/86e00c1fee57
@@ -44,33 +51,177 @@ import org.apache.ibatis.builder.BuilderException;
  */
 public final class OgnlCache {
 
+  /**
+   * 默认最多缓存的表达式个数
+   *
+   * @since 3.5.4
+   */
+  public static final int DEFAULT_SIZE = 1024;
+
   private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
   private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
-  private static final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+  // 静态方法 getValue() 使用的缓存，供未指定 ExpressionEngine 的 SqlNode 使用
+  private static final OgnlCache SHARED = new OgnlCache(DEFAULT_SIZE);
+
+  // 解析并编译后的表达式
+  private final Map<String, CompiledExpression> expressionCache = new ConcurrentHashMap<>();
+  // 表达式的缓存顺序，缓存已满时淘汰最早缓存的表达式
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private volatile int size;
+  // 编译后的表达式访问属性时使用，Configuration 中的 OgnlCache 使用 Configuration 的 ReflectorFactory
+  private volatile ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
 
-  private OgnlCache() {
-    // Prevent Instantiation of Static Class
+  /**
+   * @param size the maximum number of expressions cached, 0 disables caching
+   * @since 3.5.4
+   */
+  public OgnlCache(int size) {
+    this.size = size;
   }
 
   public static Object getValue(String expression, Object root) {
+    return SHARED.evaluate(expression, root);
+  }
+
+  static OgnlCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * Evaluates an expression, parsing and compiling it if it is not cached.
+   *
+   * @since 3.5.4
+   */
+  public Object evaluate(String expression, Object root) {
     try {
-      // 创建 OgnlContext 对象 OgnlClassResolver 替代了 OGNL 中原有的 DefaultClassResolver,
-      // 其主要功能是使用前 介绍 Resource 具类定位资源
-      Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
+      // 常用的表达式已编译为直接访问属性的求值器，无法计算时回退到 OGNL
+      CompiledExpression compiled = compileExpression(expression);
+      Object value = compiled.getValue(root, reflectorFactory);
+      if (value != CompiledExpression.FALLBACK) {
+        return value;
+      }
+      Map context = createContext(root);
       // 使用 OGNL 执行 expression 表达式
-      return Ognl.getValue(parseExpression(expression), context, root);
-    } catch (OgnlException e) {
+      return Ognl.getValue(compiled.getTree(), context, root);
+    } catch (RuntimeException e) {
+      // 与 OGNL 一致，运行时异常直接抛出
+      throw e;
+    } catch (Exception e) {
+      // OgnlException 以及编译后的表达式调用 getter 时抛出的异常
       throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e, e);
     }
   }
 
-  private static Object parseExpression(String expression) throws OgnlException {
-    Object node = expressionCache.get(expression);
-    if (node == null) {
-      node = Ognl.parseExpression(expression); // 解析表达式
-      expressionCache.put(expression, node);
+  static OgnlContext createContext(Object root) {
+    // 创建 OgnlContext 对象 OgnlClassResolver 替代了 OGNL 中原有的 DefaultClassResolver,
+    // 其主要功能是使用前 介绍 Resource 具类定位资源
+    return (OgnlContext) Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
+  }
+
+  private CompiledExpression compileExpression(String expression) throws OgnlException {
+    CompiledExpression compiled = expressionCache.get(expression);
+    if (compiled != null) {
+      hits.increment();
+      return compiled;
+    }
+    misses.increment();
+    compiled = CompiledExpression.compile(Ognl.parseExpression(expression)); // 解析表达式
+    if (size > 0 && expressionCache.putIfAbsent(expression, compiled) == null) {
+      insertionOrder.add(expression);
+      while (expressionCache.size() > size) {
+        String eldest = insertionOrder.poll();
+        if (eldest == null) {
+          break;
+        }
+        if (expressionCache.remove(eldest) != null) {
+          evictions.increment();
+        }
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Sets the maximum number of expressions cached. The earliest cached expressions are evicted when the cache is
+   * full. 0 disables caching.
+   *
+   * @since 3.5.4
+   */
+  public void setSize(int size) {
+    this.size = size;
+    while (expressionCache.size() > Math.max(size, 0)) {
+      String eldest = insertionOrder.poll();
+      if (eldest == null) {
+        break;
+      }
+      if (expressionCache.remove(eldest) != null) {
+        evictions.increment();
+      }
     }
-    return node;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public ReflectorFactory getReflectorFactory() {
+    return reflectorFactory;
+  }
+
+  /**
+   * Sets the reflector factory compiled expressions use to read properties.
+   *
+   * @since 3.5.4
+   */
+  public void setReflectorFactory(ReflectorFactory reflectorFactory) {
+    this.reflectorFactory = reflectorFactory;
+  }
+
+  /**
+   * @return the number of expressions currently cached
+   * @since 3.5.4
+   */
+  public int getExpressionCount() {
+    return expressionCache.size();
+  }
+
+  /**
+   * @return the number of evaluations that found their expression in the cache
+   * @since 3.5.4
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of evaluations that had to parse their expression
+   * @since 3.5.4
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of expressions evicted because the cache was full
+   * @since 3.5.4
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "OgnlCache[size=" + size + ", expressions=" + getExpressionCount() + ", hits=" + getHitCount()
+        + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
   }
 
 }
@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+/**
+ * 基于 OGNL 的 ExpressionEngine 实现，常用的表达式会被编译为直接访问属性的求值器。
+ * 每个实例使用各自的 {@link OgnlCache} 缓存解析后的表达式。
+ *
+ * @since 3.5.4
+ */
+public class OgnlExpressionEngine implements ExpressionEngine {
+
+  // 未指定 ExpressionEngine 的 SqlNode 共享的实例
+  static final OgnlExpressionEngine SHARED = new OgnlExpressionEngine(OgnlCache.shared());
+
+  private final OgnlCache cache;
+
+  public OgnlExpressionEngine() {
+    this(OgnlCache.DEFAULT_SIZE);
+  }
+
+  public OgnlExpressionEngine(int cacheSize) {
+    this(new OgnlCache(cacheSize));
+  }
+
+  private OgnlExpressionEngine(OgnlCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public Object getValue(String expression, Object root) {
+    return cache.evaluate(expression, root);
+  }
+
+  /**
+   * @return the cache of parsed expressions, which also exposes its hit and miss statistics
+   */
+  public OgnlCache getCache() {
+    return cache;
+  }
+
+}
@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.apache.ibatis.builder.ParameterTemplate;
+
+/**
+ * SQL 文本节点中 "#{}" 占位符的预编译结果：在加载映射文件时将文本拆分为文本片段与 ParameterTemplate，
+ * 执行时直接输出 "?"，不再需要 SqlSourceBuilder 重新扫描并解析 "#{}" 占位符
+ *
+ * @since 3.5.4
+ */
+final class PrecompiledSqlText {
+
+  // 文本片段，比 templates 多一个元素：fragments[0] templates[0] fragments[1] ... fragments[n]
+  private final List<String> fragments;
+  private final List<ParameterTemplate> templates;
+
+  private PrecompiledSqlText(List<String> fragments, List<ParameterTemplate> templates) {
+    this.fragments = fragments;
+    this.templates = templates;
+  }
+
+  /**
+   * 预编译文本中的 "#{}" 占位符，不包含占位符或者包含转义字符时返回 null
+   */
+  static PrecompiledSqlText compile(String text) {
+    if (text == null || !text.contains("#{") || text.indexOf('\\') >= 0) {
+      return null;
+    }
+    TokenizedText tokenized = TokenizedText.split(text, "#{", "}");
+    if (tokenized == null || tokenized.getTokens().isEmpty()) {
+      return null;
+    }
+    List<ParameterTemplate> templates = new ArrayList<>(tokenized.getTokens().size());
+    for (String content : tokenized.getTokens()) {
+      templates.add(new ParameterTemplate(content));
+    }
+    return new PrecompiledSqlText(tokenized.getFragments(), Collections.unmodifiableList(templates));
+  }
+
+  List<ParameterTemplate> getTemplates() {
+    return templates;
+  }
+
+  List<String> getFragments() {
+    return fragments;
+  }
+
+  /**
+   * 输出文本，每个 "#{}" 占位符替换为 DynamicContext 返回的 "?"；DynamicContext 不收集 ParameterTemplate 时返回 null
+   */
+  String apply(DynamicContext context) {
+    return apply(context, fragments::get);
+  }
+
+  /**
+   * 与 {@link #apply(DynamicContext)} 相同，第 i 个文本片段由 fragmentRenderer 输出
+   */
+  String apply(DynamicContext context, IntFunction<String> fragmentRenderer) {
+    StringBuilder sql = new StringBuilder();
+    for (int i = 0; i < templates.size(); i++) {
+      String placeholder = context.parameterPlaceholder(templates.get(i));
+      if (placeholder == null) {
+        return null;
+      }
+      sql.append(fragmentRenderer.apply(i)).append(placeholder);
+    }
+    return sql.append(fragmentRenderer.apply(templates.size())).toString();
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * SQL 文本中 "${}" 占位符的预编译结果：在加载映射文件时将文本拆分为文本片段与表达式，
+ * 执行时依次输出文本片段和表达式的值，不再需要 GenericTokenParser 重新扫描文本
+ *
+ * @since 3.5.4
+ */
+final class PrecompiledSubstitution {
+
+  // 文本片段（已处理转义字符），比 expressions 多一个元素：literals[0] expressions[0] literals[1] ... literals[n]
+  private final String[] literals;
+  private final String[] expressions;
+
+  private PrecompiledSubstitution(String[] literals, String[] expressions) {
+    this.literals = literals;
+    this.expressions = expressions;
+  }
+
+  /**
+   * 预编译文本中的 "${}" 占位符，文本中包含标记字符时返回 null
+   */
+  static PrecompiledSubstitution compile(String text) {
+    TokenizedText tokenized = TokenizedText.split(text, "${", "}");
+    if (tokenized == null) {
+      return null;
+    }
+    return new PrecompiledSubstitution(tokenized.getFragments().toArray(new String[0]), tokenized.getTokens().toArray(new String[0]));
+  }
+
+  boolean isDynamic() {
+    return expressions.length > 0;
+  }
+
+  String[] getExpressions() {
+    return expressions;
+  }
+
+  /**
+   * 输出文本，每个 "${}" 占位符替换为 evaluator 计算出的值
+   */
+  String apply(UnaryOperator<String> evaluator) {
+    if (expressions.length == 0) {
+      return literals[0];
+    }
+    StringBuilder sql = new StringBuilder();
+    for (int i = 0; i < expressions.length; i++) {
+      sql.append(literals[i]).append(evaluator.apply(expressions[i]));
+    }
+    return sql.append(literals[expressions.length]).toString();
+  }
+
+}
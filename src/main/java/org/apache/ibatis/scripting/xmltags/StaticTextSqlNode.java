@@ -22,14 +22,18 @@ package org.apache.ibatis.scripting.xmltags;
  */
 public class StaticTextSqlNode implements SqlNode {
   private final String text;
+  // 预编译的 "#{}" 占位符，文本中不包含占位符时为 null
+  private final PrecompiledSqlText precompiledText;
 
   public StaticTextSqlNode(String text) {
     this.text = text;
+    this.precompiledText = PrecompiledSqlText.compile(text);
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    context.appendSql(text);
+    String sql = precompiledText == null ? null : precompiledText.apply(context);
+    context.appendSql(sql == null ? text : sql);
     return true;
   }
 
@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
+import org.apache.ibatis.builder.ParameterTemplate;
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.parsing.TokenHandler;
 import org.apache.ibatis.scripting.ScriptingException;
@@ -29,14 +32,60 @@ import org.apache.ibatis.type.SimpleTypeRegistry;
 public class TextSqlNode implements SqlNode {
   private final String text;
   private final Pattern injectionFilter;
+  private final ExpressionEngine expressionEngine;
+  // 预编译的 "${}" 占位符，文本中包含标记字符时为 null
+  private final PrecompiledSubstitution substitution;
+  // 预编译的 "#{}" 占位符，文本中不包含占位符，或者 "#{}" 与 "${}" 占位符相互嵌套时为 null
+  private final PrecompiledSqlText precompiledText;
+  // precompiledText 中每个文本片段对应的预编译 "${}" 占位符
+  private final PrecompiledSubstitution[] fragmentSubstitutions;
 
   public TextSqlNode(String text) {
     this(text, null);
   }
 
   public TextSqlNode(String text, Pattern injectionFilter) {
+    this(text, injectionFilter, OgnlExpressionEngine.SHARED);
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public TextSqlNode(String text, Pattern injectionFilter, ExpressionEngine expressionEngine) {
     this.text = text;
     this.injectionFilter = injectionFilter;
+    this.expressionEngine = expressionEngine;
+    this.substitution = PrecompiledSubstitution.compile(text);
+    this.precompiledText = precompile(text);
+    this.fragmentSubstitutions = precompiledText == null ? null : precompileFragments(precompiledText);
+  }
+
+  private PrecompiledSqlText precompile(String text) {
+    PrecompiledSqlText precompiled = PrecompiledSqlText.compile(text);
+    if (precompiled == null || substitution == null) {
+      return null;
+    }
+    // "${}" 占位符先于 "#{}" 占位符处理，两者嵌套时只能在执行时解析
+    for (ParameterTemplate template : precompiled.getTemplates()) {
+      if (template.getContent().contains("${")) {
+        return null;
+      }
+    }
+    for (String expression : substitution.getExpressions()) {
+      if (expression.contains("#{")) {
+        return null;
+      }
+    }
+    return precompiled;
+  }
+
+  private static PrecompiledSubstitution[] precompileFragments(PrecompiledSqlText precompiled) {
+    List<String> fragments = precompiled.getFragments();
+    PrecompiledSubstitution[] substitutions = new PrecompiledSubstitution[fragments.size()];
+    for (int i = 0; i < substitutions.length; i++) {
+      substitutions[i] = PrecompiledSubstitution.compile(fragments.get(i));
+    }
+    return substitutions;
   }
 
   /**
@@ -45,6 +94,9 @@ public class TextSqlNode implements SqlNode {
    * @return
    */
   public boolean isDynamic() {
+    if (substitution != null) {
+      return substitution.isDynamic();
+    }
     DynamicCheckerTokenParser checker = new DynamicCheckerTokenParser();
     GenericTokenParser parser = createParser(checker);
     parser.parse(text);
@@ -52,15 +104,19 @@ public class TextSqlNode implements SqlNode {
   }
 
   /**
-   * apply() 方法会使用 GenericTokenParser 解析 "${}" 占位符，并直接替换成用户给定的实际参数值
+   * apply() 方法会将 "${}" 占位符直接替换成用户给定的实际参数值，占位符已预编译时只需依次输出文本片段和表达式的值
    * @param context
    * @return
    */
   @Override
   public boolean apply(DynamicContext context) {
-    GenericTokenParser parser = createParser(new BindingTokenParser(context, injectionFilter));
-    // 将解析后的 SQL 放入 DynamicContext.sqlBuilder 中。
-    context.appendSql(parser.parse(text));
+    UnaryOperator<String> evaluator = expression -> evaluate(context, expression);
+    // 将解析后的 SQL 放入 DynamicContext.sqlBuilder 中，"#{}" 占位符已预编译时只替换文本片段中的 "${}" 占位符
+    String sql = precompiledText == null ? null : precompiledText.apply(context, i -> fragmentSubstitutions[i].apply(evaluator));
+    if (sql == null) {
+      sql = substitution != null ? substitution.apply(evaluator) : createParser(evaluator::apply).parse(text);
+    }
+    context.appendSql(sql);
     return true;
   }
 
@@ -70,40 +126,27 @@ public class TextSqlNode implements SqlNode {
   }
 
   /**
-   * BindingTokenParser 继承了 TokenHandler 接口，
-   * 它的主要功能是根据 DynamicContext.bindings 集合中的信息解析 SQL 语句节点中的 "${}" 占位符。
+   * 根据 DynamicContext.bindings 集合中的信息计算 "${}" 占位符中表达式的值
    */
-  private static class BindingTokenParser implements TokenHandler {
-    // context 指向了 DynamicContext 对象
-    private DynamicContext context;
-    private Pattern injectionFilter;
-
-    public BindingTokenParser(DynamicContext context, Pattern injectionFilter) {
-      this.context = context;
-      this.injectionFilter = injectionFilter;
-    }
-
-    @Override
-    public String handleToken(String content) {
-      // 获取用户提供的实参
-      Object parameter = context.getBindings().get("_parameter");
-      if (parameter == null) {
-        context.getBindings().put("value", null);
-      } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
-        context.getBindings().put("value", parameter);
-      }
-      // 通过 OGNL 解析 content 的值
-      Object value = OgnlCache.getValue(content, context.getBindings());
-      String srtValue = value == null ? "" : String.valueOf(value); // issue #274 return "" instead of "null"
-      // 检测合法性
-      checkInjection(srtValue);
-      return srtValue;
+  private String evaluate(DynamicContext context, String content) {
+    // 获取用户提供的实参
+    Object parameter = context.getBindings().get("_parameter");
+    if (parameter == null) {
+      context.getBindings().put("value", null);
+    } else if (SimpleTypeRegistry.isSimpleType(parameter.getClass())) {
+      context.getBindings().put("value", parameter);
     }
+    // 通过 ExpressionEngine（默认为 OGNL）解析 content 的值
+    Object value = expressionEngine.getValue(content, context.getBindings());
+    String srtValue = value == null ? "" : String.valueOf(value); // issue #274 return "" instead of "null"
+    // 检测合法性
+    checkInjection(srtValue);
+    return srtValue;
+  }
 
-    private void checkInjection(String value) {
-      if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
-        throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
-      }
+  private void checkInjection(String value) {
+    if (injectionFilter != null && !injectionFilter.matcher(value).matches()) {
+      throw new ScriptingException("Invalid input. Please conform to regex" + injectionFilter.pattern());
     }
   }
 
@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.parsing.GenericTokenParser;
+
+/**
+ * 通过 GenericTokenParser 将文本拆分为文本片段（已处理转义字符）与占位符的内容，供预编译 "#{}" 和 "${}" 占位符使用
+ *
+ * @since 3.5.4
+ */
+final class TokenizedText {
+
+  // GenericTokenParser 替换占位符时使用的标记字符，用于拆分文本片段
+  private static final char MARKER = '\u0000';
+
+  // 文本片段，比 tokens 多一个元素：fragments[0] tokens[0] fragments[1] ... fragments[n]
+  private final List<String> fragments;
+  private final List<String> tokens;
+
+  private TokenizedText(List<String> fragments, List<String> tokens) {
+    this.fragments = fragments;
+    this.tokens = tokens;
+  }
+
+  /**
+   * 拆分文本中由 openToken 和 closeToken 包围的占位符，文本中包含标记字符时返回 null
+   */
+  static TokenizedText split(String text, String openToken, String closeToken) {
+    if (text != null && text.indexOf(MARKER) >= 0) {
+      return null;
+    }
+    List<String> tokens = new ArrayList<>();
+    String marked = new GenericTokenParser(openToken, closeToken, content -> {
+      tokens.add(content);
+      return String.valueOf(MARKER);
+    }).parse(text);
+    List<String> fragments = new ArrayList<>(tokens.size() + 1);
+    int start = 0;
+    for (int i = marked.indexOf(MARKER); i >= 0; i = marked.indexOf(MARKER, start)) {
+      fragments.add(marked.substring(start, i));
+      start = i + 1;
+    }
+    fragments.add(marked.substring(start));
+    return new TokenizedText(Collections.unmodifiableList(fragments), Collections.unmodifiableList(tokens));
+  }
+
+  List<String> getFragments() {
+    return fragments;
+  }
+
+  List<String> getTokens() {
+    return tokens;
+  }
+
+}
@@ -22,6 +22,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
 
+import org.apache.ibatis.builder.ParameterTemplate;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -105,30 +106,45 @@ public class TrimSqlNode implements SqlNode {
    */
   private class FilteredDynamicContext extends DynamicContext {
     // 底层封装 DynamicContext 对象
-    private DynamicContext delegate;
-    // 是否已经处理过前缀和后缀，初始值都为 false
-    private boolean prefixApplied;
-    private boolean suffixApplied;
+    private final DynamicContext delegate;
 
     // 用于记录子节点解析后的结果，FilteredDynamicContext.appendSql()方法会向改字段添加解析结果，
     // 而不是调用 delegate.appendSql() 方法
-    private StringBuilder sqlBuffer;
+    private final StringBuilder sqlBuffer;
 
     public FilteredDynamicContext(DynamicContext delegate) {
-      super(configuration, null);
       this.delegate = delegate;
-      this.prefixApplied = false;
-      this.suffixApplied = false;
       this.sqlBuffer = new StringBuilder();
     }
 
+    /**
+     * 在 sqlBuffer 上直接去除首尾空白、删除需要覆盖的前缀和后缀，并添加 prefix 和 suffix，
+     * 前缀和后缀按字符忽略大小写比较，不再为整条语句创建大写副本
+     */
     public void applyAll() {
-      // 获取子节点解析后的结果，并全部转换为大写
-      sqlBuffer = new StringBuilder(sqlBuffer.toString().trim());
-      String trimmedUppercaseSql = sqlBuffer.toString().toUpperCase(Locale.ENGLISH);
-      if (trimmedUppercaseSql.length() > 0) {
-        applyPrefix(sqlBuffer, trimmedUppercaseSql);  // 处理前缀
-        applySuffix(sqlBuffer, trimmedUppercaseSql);  // 处理后缀
+      int start = 0;
+      int end = sqlBuffer.length();
+      while (start < end && sqlBuffer.charAt(start) <= ' ') {
+        start++;
+      }
+      while (end > start && sqlBuffer.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      if (start < end) {
+        // 前缀和后缀都是针对去除空白后的原始语句判断的
+        int prefixLength = overriddenPrefixLength(start, end);
+        int suffixLength = overriddenSuffixLength(start, end);
+        sqlBuffer.setLength(end - suffixLength);
+        if (suffix != null) {  // 添加 suffix 后缀
+          sqlBuffer.append(' ').append(suffix);
+        }
+        if (prefix != null) { // 添加 prefix 前缀
+          sqlBuffer.replace(0, start + prefixLength, prefix).insert(prefix.length(), ' ');
+        } else {
+          sqlBuffer.delete(0, start + prefixLength);
+        }
+      } else {
+        sqlBuffer.setLength(0);
       }
       delegate.appendSql(sqlBuffer.toString()); // 将解析后的结果添加到 delegate 中
     }
@@ -158,54 +174,54 @@ public class TrimSqlNode implements SqlNode {
       return delegate.getSql();
     }
 
+    @Override
+    public String parameterPlaceholder(ParameterTemplate template) {
+      return delegate.parameterPlaceholder(template);
+    }
+
     /**
-     * 处理前缀前缀
-     * @param sql
-     * @param trimmedUppercaseSql
+     * 遍历 prefixesToOverride 集合，如果 SQL 语句以其中某项开头，返回需要从 SQL 语句开头删除的长度
      */
-    private void applyPrefix(StringBuilder sql, String trimmedUppercaseSql) {
-      if (!prefixApplied) {  // 检测是否已经处理过前缀
-        prefixApplied = true; //标记已处理过前缀
-        if (prefixesToOverride != null) {
-          for (String toRemove : prefixesToOverride) {
-            // 遍历 prefixesToOverride 集合，如果 prefixesToOverride 中某项开头，则将改项从 SQL 语句开头删除掉
-            if (trimmedUppercaseSql.startsWith(toRemove)) {
-              sql.delete(0, toRemove.trim().length());
-              break;
-            }
+    private int overriddenPrefixLength(int start, int end) {
+      if (prefixesToOverride != null) {
+        for (String toRemove : prefixesToOverride) {
+          if (regionMatches(start, end, start, toRemove)) {
+            return toRemove.trim().length();
           }
         }
-        if (prefix != null) { // 添加 prefix 前缀
-          sql.insert(0, " ");
-          sql.insert(0, prefix);
-        }
       }
+      return 0;
     }
 
     /**
-     * 处理后缀
-     * @param sql
-     * @param trimmedUppercaseSql
+     * 遍历 suffixesToOverride 集合，如果 SQL 语句以其中某项结尾，返回需要从 SQL 语句结尾删除的长度
      */
-    private void applySuffix(StringBuilder sql, String trimmedUppercaseSql) {
-      if (!suffixApplied) {  // 检测是否已经处理过前缀
-        suffixApplied = true;  //标记已处理过前缀
-        if (suffixesToOverride != null) {
-          // 遍历 suffixesToOverride 集合，如果 suffixesToOverride 中某项开头，则将改项从 SQL 语句开头删除掉
-          for (String toRemove : suffixesToOverride) {
-            if (trimmedUppercaseSql.endsWith(toRemove) || trimmedUppercaseSql.endsWith(toRemove.trim())) {
-              int start = sql.length() - toRemove.trim().length();
-              int end = sql.length();
-              sql.delete(start, end);
-              break;
-            }
+    private int overriddenSuffixLength(int start, int end) {
+      if (suffixesToOverride != null) {
+        for (String toRemove : suffixesToOverride) {
+          String trimmed = toRemove.trim();
+          if (regionMatches(start, end, end - toRemove.length(), toRemove)
+              || regionMatches(start, end, end - trimmed.length(), trimmed)) {
+            return trimmed.length();
           }
         }
-        if (suffix != null) {  // 添加 suffix 后缀
-          sql.append(" ");
-          sql.append(suffix);
+      }
+      return 0;
+    }
+
+    /**
+     * 判断 sqlBuffer 在 [start, end) 范围内从 offset 开始的字符是否与大写的 override 匹配
+     */
+    private boolean regionMatches(int start, int end, int offset, String override) {
+      if (offset < start || offset + override.length() > end) {
+        return false;
+      }
+      for (int i = 0; i < override.length(); i++) {
+        if (Character.toUpperCase(sqlBuffer.charAt(offset + i)) != override.charAt(i)) {
+          return false;
         }
       }
+      return true;
     }
 
   }
@@ -25,16 +25,25 @@ public class VarDeclSqlNode implements SqlNode {
   private final String name;
   // 记录＜bind＞节点的 value 属性值
   private final String expression;
+  private final ExpressionEngine expressionEngine;
 
   public VarDeclSqlNode(String var, String exp) {
+    this(var, exp, OgnlExpressionEngine.SHARED);
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public VarDeclSqlNode(String var, String exp, ExpressionEngine expressionEngine) {
     name = var;
     expression = exp;
+    this.expressionEngine = expressionEngine;
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    // 解析 OGNL 表达式的值
-    final Object value = OgnlCache.getValue(expression, context.getBindings());
+    // 解析表达式的值
+    final Object value = expressionEngine.getValue(expression, context.getBindings());
     // 将 name 和 表达式的值存入 DynamicContext.bindings 集合中
     context.bind(name, value);
     return true;
@@ -44,7 +44,7 @@ public class XMLLanguageDriver implements LanguageDriver {
   @Override
   public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
     //动态 SQL 语言脚本 解析器
-    XMLScriptBuilder builder = new XMLScriptBuilder(configuration, script, parameterType);
+    XMLScriptBuilder builder = new XMLScriptBuilder(configuration, script, parameterType, getExpressionEngine(configuration));
     // 解析 mapper.xml 中的动态 SQL 语言
     return builder.parseScriptNode();
   }
@@ -58,7 +58,7 @@ public class XMLLanguageDriver implements LanguageDriver {
     } else {
       // issue #127
       script = PropertyParser.parse(script, configuration.getVariables());
-      TextSqlNode textSqlNode = new TextSqlNode(script);
+      TextSqlNode textSqlNode = new TextSqlNode(script, null, getExpressionEngine(configuration));
       if (textSqlNode.isDynamic()) {
         return new DynamicSqlSource(configuration, textSqlNode);
       } else {
@@ -67,4 +67,16 @@ public class XMLLanguageDriver implements LanguageDriver {
     }
   }
 
+  /**
+   * Returns the engine that evaluates the expressions of the scripts created by this driver. Subclasses can
+   * override it to use another engine for the statements that select them through the {@code lang} attribute.
+   *
+   * @param configuration the configuration
+   * @return {@link Configuration#getExpressionEngine()} by default
+   * @since 3.5.4
+   */
+  protected ExpressionEngine getExpressionEngine(Configuration configuration) {
+    return configuration.getExpressionEngine();
+  }
+
 }
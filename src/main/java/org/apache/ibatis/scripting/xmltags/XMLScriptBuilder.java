@@ -37,6 +37,8 @@ public class XMLScriptBuilder extends BaseBuilder {
   private final XNode context;
   private boolean isDynamic;
   private final Class<?> parameterType;
+  // 计算 <if>、<when>、<foreach>、<bind> 以及 ${} 占位符中的表达式
+  private final ExpressionEngine expressionEngine;
   private final Map<String, NodeHandler> nodeHandlerMap = new HashMap<>();
 
   public XMLScriptBuilder(Configuration configuration, XNode context) {
@@ -44,9 +46,17 @@ public class XMLScriptBuilder extends BaseBuilder {
   }
 
   public XMLScriptBuilder(Configuration configuration, XNode context, Class<?> parameterType) {
+    this(configuration, context, parameterType, configuration.getExpressionEngine());
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public XMLScriptBuilder(Configuration configuration, XNode context, Class<?> parameterType, ExpressionEngine expressionEngine) {
     super(configuration);
     this.context = context;
     this.parameterType = parameterType;
+    this.expressionEngine = expressionEngine;
     initNodeHandlerMap();
   }
 
@@ -92,7 +102,7 @@ public class XMLScriptBuilder extends BaseBuilder {
       // 对文本节点处理
       if (child.getNode().getNodeType() == Node.CDATA_SECTION_NODE || child.getNode().getNodeType() == Node.TEXT_NODE) {
         String data = child.getStringBody("");
-        TextSqlNode textSqlNode = new TextSqlNode(data);
+        TextSqlNode textSqlNode = new TextSqlNode(data, null, expressionEngine);
         if (textSqlNode.isDynamic()) {
           contents.add(textSqlNode);
           isDynamic = true;    //标记为动态 SQL 语句
@@ -129,7 +139,7 @@ public class XMLScriptBuilder extends BaseBuilder {
     public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
       final String name = nodeToHandle.getStringAttribute("name");
       final String expression = nodeToHandle.getStringAttribute("value");
-      final VarDeclSqlNode node = new VarDeclSqlNode(name, expression);
+      final VarDeclSqlNode node = new VarDeclSqlNode(name, expression, expressionEngine);
       targetContents.add(node);
     }
   }
@@ -193,7 +203,8 @@ public class XMLScriptBuilder extends BaseBuilder {
       String open = nodeToHandle.getStringAttribute("open");
       String close = nodeToHandle.getStringAttribute("close");
       String separator = nodeToHandle.getStringAttribute("separator");
-      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator);
+      boolean padding = nodeToHandle.getBooleanAttribute("padding", false);
+      ForEachSqlNode forEachSqlNode = new ForEachSqlNode(configuration, mixedSqlNode, collection, index, item, open, close, separator, padding, expressionEngine);
       targetContents.add(forEachSqlNode);
     }
   }
@@ -207,7 +218,7 @@ public class XMLScriptBuilder extends BaseBuilder {
     public void handleNode(XNode nodeToHandle, List<SqlNode> targetContents) {
       MixedSqlNode mixedSqlNode = parseDynamicTags(nodeToHandle);
       String test = nodeToHandle.getStringAttribute("test");
-      IfSqlNode ifSqlNode = new IfSqlNode(mixedSqlNode, test);
+      IfSqlNode ifSqlNode = new IfSqlNode(mixedSqlNode, test, expressionEngine);
       targetContents.add(ifSqlNode);
     }
   }
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A cursor of an {@link AsyncSqlSession}. Items are only fetched when the caller asks for them, so a slow consumer
+ * applies back-pressure to the database instead of buffering the whole result.
+ *
+ * 异步游标：只有调用方请求时才从数据库读取结果对象
+ *
+ * @since 3.5.4
+ */
+public class AsyncCursor<T> {
+
+  private final AsyncSqlSession session;
+  private final CompletableFuture<Cursor<T>> cursor;
+
+  AsyncCursor(AsyncSqlSession session, CompletableFuture<Cursor<T>> cursor) {
+    this.session = session;
+    this.cursor = cursor;
+  }
+
+  /**
+   * Fetches up to {@code count} items.
+   *
+   * @param count the maximum number of items to fetch
+   * @return a future completed with the fetched items, an empty list once the cursor is consumed
+   */
+  public CompletableFuture<List<T>> fetch(int count) {
+    return session.execute(sqlSession -> new ArrayList<>(cursor.join().nextBatch(count)));
+  }
+
+  /**
+   * Fetches the remaining items in batches of {@code batchSize}, requesting the next batch only once the action
+   * has processed the previous one, and closes the cursor.
+   *
+   * @param batchSize the number of items fetched at once
+   * @param action the action to apply to each item
+   * @return a future completed when all items have been processed
+   */
+  public CompletableFuture<Void> forEach(int batchSize, Consumer<? super T> action) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    fetchEach(batchSize, action).whenComplete((ignored, failure) -> close().whenComplete((closed, closeFailure) -> {
+      if (failure != null) {
+        result.completeExceptionally(failure);
+      } else if (closeFailure != null) {
+        result.completeExceptionally(closeFailure);
+      } else {
+        result.complete(null);
+      }
+    }));
+    return result;
+  }
+
+  private CompletableFuture<Void> fetchEach(int batchSize, Consumer<? super T> action) {
+    return fetch(batchSize).thenCompose(batch -> {
+      if (batch.isEmpty()) {
+        return CompletableFuture.completedFuture(null);
+      }
+      batch.forEach(action);
+      return fetchEach(batchSize, action);
+    });
+  }
+
+  /**
+   * Closes the underlying cursor.
+   *
+   * @return a future completed when the cursor is closed
+   */
+  public CompletableFuture<Void> close() {
+    return session.execute(sqlSession -> {
+      try {
+        cursor.join().close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return null;
+    });
+  }
+
+}
@@ -0,0 +1,201 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
+
+/**
+ * A non-blocking facade over a {@link SqlSession}. Every method returns immediately with a {@link CompletableFuture}
+ * and the statement runs on a dedicated executor, so callers on an event loop never block on JDBC.
+ * <p>
+ * A SqlSession is not thread safe, so the operations of one AsyncSqlSession run one after another, in the order
+ * they were submitted. A failed operation does not prevent the following ones from running.
+ * Mapper methods can be run with {@link #execute(Function)}.
+ *
+ * 异步 SqlSession：每个方法都立即返回 CompletableFuture，SQL 语句在专用的线程池中按提交顺序依次执行
+ *
+ * @since 3.5.4
+ */
+public class AsyncSqlSession {
+
+  private final SqlSession sqlSession;
+  private final Executor executor;
+  // 最后一个提交的操作，下一个操作在它完成之后执行
+  private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+  /**
+   * Creates an asynchronous facade running the statements of the session on the executor service of the configuration.
+   *
+   * @param sqlSession the session to run the statements with
+   * @see Configuration#setAsyncPoolSize(int)
+   */
+  public AsyncSqlSession(SqlSession sqlSession) {
+    this(sqlSession, sqlSession.getConfiguration().getAsyncExecutorService());
+  }
+
+  /**
+   * Creates an asynchronous facade running the statements of the session on the given executor.
+   *
+   * @param sqlSession the session to run the statements with
+   * @param executor the executor running the statements
+   */
+  public AsyncSqlSession(SqlSession sqlSession, Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("An executor is required to run asynchronous statements. "
+          + "Set the asyncPoolSize setting or pass an executor to the AsyncSqlSession.");
+    }
+    this.sqlSession = sqlSession;
+    this.executor = executor;
+  }
+
+  /**
+   * Runs any work with the underlying session, e.g. calls to mapper methods, after the previously submitted operations.
+   *
+   * @param <R> the result type
+   * @param work the work to run with the session
+   * @return a future completed with the result of the work
+   */
+  public synchronized <R> CompletableFuture<R> execute(Function<SqlSession, R> work) {
+    CompletableFuture<R> future = tail.handle((result, failure) -> null)
+        .thenApplyAsync(ignored -> work.apply(sqlSession), executor);
+    tail = future;
+    return future;
+  }
+
+  public <T> CompletableFuture<T> selectOne(String statement) {
+    return execute(session -> session.selectOne(statement));
+  }
+
+  public <T> CompletableFuture<T> selectOne(String statement, Object parameter) {
+    return execute(session -> session.selectOne(statement, parameter));
+  }
+
+  public <E> CompletableFuture<List<E>> selectList(String statement) {
+    return execute(session -> session.selectList(statement));
+  }
+
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter) {
+    return execute(session -> session.selectList(statement, parameter));
+  }
+
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds) {
+    return execute(session -> session.selectList(statement, parameter, rowBounds));
+  }
+
+  public <K, V> CompletableFuture<Map<K, V>> selectMap(String statement, Object parameter, String mapKey) {
+    return execute(session -> session.selectMap(statement, parameter, mapKey));
+  }
+
+  /**
+   * Opens a cursor whose items are fetched on demand, in batches requested by the caller.
+   *
+   * @param <T> the returned cursor element type
+   * @param statement Unique identifier matching the statement to use.
+   * @return a cursor fetching the mapped objects on demand
+   */
+  public <T> AsyncCursor<T> selectCursor(String statement) {
+    return selectCursor(statement, null);
+  }
+
+  public <T> AsyncCursor<T> selectCursor(String statement, Object parameter) {
+    return selectCursor(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  public <T> AsyncCursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
+    CompletableFuture<Cursor<T>> cursor = execute(session -> session.selectCursor(statement, parameter, rowBounds));
+    return new AsyncCursor<>(this, cursor);
+  }
+
+  public CompletableFuture<Integer> insert(String statement) {
+    return execute(session -> session.insert(statement));
+  }
+
+  public CompletableFuture<Integer> insert(String statement, Object parameter) {
+    return execute(session -> session.insert(statement, parameter));
+  }
+
+  public CompletableFuture<Integer> update(String statement) {
+    return execute(session -> session.update(statement));
+  }
+
+  public CompletableFuture<Integer> update(String statement, Object parameter) {
+    return execute(session -> session.update(statement, parameter));
+  }
+
+  public CompletableFuture<Integer> delete(String statement) {
+    return execute(session -> session.delete(statement));
+  }
+
+  public CompletableFuture<Integer> delete(String statement, Object parameter) {
+    return execute(session -> session.delete(statement, parameter));
+  }
+
+  public CompletableFuture<List<BatchResult>> flushStatements() {
+    return execute(SqlSession::flushStatements);
+  }
+
+  public CompletableFuture<Void> commit() {
+    return execute(session -> {
+      session.commit();
+      return null;
+    });
+  }
+
+  public CompletableFuture<Void> commit(boolean force) {
+    return execute(session -> {
+      session.commit(force);
+      return null;
+    });
+  }
+
+  public CompletableFuture<Void> rollback() {
+    return execute(session -> {
+      session.rollback();
+      return null;
+    });
+  }
+
+  public CompletableFuture<Void> rollback(boolean force) {
+    return execute(session -> {
+      session.rollback(force);
+      return null;
+    });
+  }
+
+  /**
+   * Closes the underlying session after the previously submitted operations.
+   *
+   * @return a future completed when the session is closed
+   */
+  public CompletableFuture<Void> close() {
+    return execute(session -> {
+      session.close();
+      return null;
+    });
+  }
+
+  public Configuration getConfiguration() {
+    return sqlSession.getConfiguration();
+  }
+
+}
@@ -25,6 +25,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -76,6 +79,7 @@ import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
+import org.apache.ibatis.reflection.CompiledPropertyPath;
 import org.apache.ibatis.reflection.DefaultReflectorFactory;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
@@ -86,6 +90,9 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -125,6 +132,19 @@ public class Configuration {
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize; //fetching size of results
   protected ResultSetType defaultResultSetType;
+  protected int nestedSelectBatchSize; // keys per query when batching nested selects, 0 disables batching
+  protected int nestedSelectParallelism; // threads running eager nested selects concurrently, 0 runs them serially
+  protected ExecutorService nestedSelectExecutorService; // set by the caller, takes precedence over nestedSelectParallelism
+  protected final LazyThreadPool nestedSelectThreadPool = new LazyThreadPool("mybatis-nested-select-");
+  protected int bulkInsertSize = 500; // rows per statement of SqlSession.insertBulk
+  protected int cursorPrefetchSize; // rows a cursor maps ahead on a producer thread, 0 maps them on the consumer thread
+  protected int asyncPoolSize; // threads running the statements of AsyncSqlSession, 0 requires an executor per session
+  protected ExecutorService asyncExecutorService; // set by the caller, takes precedence over asyncPoolSize
+  protected final LazyThreadPool asyncThreadPool = new LazyThreadPool("mybatis-async-");
+  protected int dynamicSqlShapeCacheSize; // SQL shapes each dynamic statement caches, 0 renders the SQL on every call
+  protected int providerSqlSourceCacheSize; // SqlSources each provider statement caches, 0 parses the provided SQL on every call
+  protected boolean warmUpReflectors; // build the Reflectors of mapped types in parallel when the SqlSessionFactory is built
+  protected boolean parallelMapperParsing; // read and parse mapper XML files in parallel, register them in order
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;  // 部分的，
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
@@ -136,6 +156,8 @@ public class Configuration {
 
   protected boolean lazyLoadingEnabled = false; //all sasa will be lazily loaded
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
+  protected ExpressionEngine expressionEngine = new OgnlExpressionEngine(); // 动态 SQL 中表达式的计算引擎
+  protected int expressionCacheSize = OgnlCache.DEFAULT_SIZE; // expressions cached by the OGNL expression engine
 
   protected String databaseId;
   /**
@@ -187,6 +209,8 @@ public class Configuration {
   }
 
   public Configuration() {
+    applyReflectorFactory();
+
     typeAliasRegistry.registerAlias("JDBC", JdbcTransactionFactory.class);
     typeAliasRegistry.registerAlias("MANAGED", ManagedTransactionFactory.class);
 
@@ -216,6 +240,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("OGNL", OgnlExpressionEngine.class);
+
     // 设置默认动态 SQL 语言驱动
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     // 注册 RawLanguageDriver
@@ -373,6 +399,55 @@ public class Configuration {
     this.proxyFactory = proxyFactory;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public ExpressionEngine getExpressionEngine() {
+    return expressionEngine;
+  }
+
+  /**
+   * Sets the engine that evaluates the expressions of XML scripts. It applies to the statements parsed after it
+   * is set. {@code null} restores the default OGNL engine.
+   *
+   * @since 3.5.4
+   */
+  public void setExpressionEngine(ExpressionEngine expressionEngine) {
+    if (expressionEngine == null) {
+      expressionEngine = new OgnlExpressionEngine(expressionCacheSize);
+    }
+    this.expressionEngine = expressionEngine;
+    applyReflectorFactory();
+  }
+
+  // OGNL 表达式引擎中编译后的表达式通过本配置的 ReflectorFactory 访问属性
+  private void applyReflectorFactory() {
+    if (expressionEngine instanceof OgnlExpressionEngine) {
+      ((OgnlExpressionEngine) expressionEngine).getCache().setReflectorFactory(reflectorFactory);
+    }
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getExpressionCacheSize() {
+    return expressionCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of parsed expressions the OGNL expression engine of this configuration caches.
+   * The earliest cached expressions are evicted when the cache is full. 0 disables caching.
+   * It has no effect when another {@link ExpressionEngine} is used.
+   *
+   * @since 3.5.4
+   */
+  public void setExpressionCacheSize(int expressionCacheSize) {
+    this.expressionCacheSize = expressionCacheSize;
+    if (expressionEngine instanceof OgnlExpressionEngine) {
+      ((OgnlExpressionEngine) expressionEngine).getCache().setSize(expressionCacheSize);
+    }
+  }
+
   public boolean isAggressiveLazyLoading() {
     return aggressiveLazyLoading;
   }
@@ -457,6 +532,218 @@ public class Configuration {
     this.defaultResultSetType = defaultResultSetType;
   }
 
+  /**
+   * @since 3.5.4
+   */
+  public int getNestedSelectBatchSize() {
+    return nestedSelectBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of keys resolved by a single {@code batchSelect} query.
+   * A value of zero (the default) disables batching of nested selects.
+   *
+   * @since 3.5.4
+   */
+  public void setNestedSelectBatchSize(int nestedSelectBatchSize) {
+    this.nestedSelectBatchSize = nestedSelectBatchSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getNestedSelectParallelism() {
+    return nestedSelectParallelism;
+  }
+
+  /**
+   * Sets the number of threads that run the eager nested selects of a result set concurrently,
+   * each on its own connection outside of the current transaction.
+   * A value of zero (the default) runs nested selects serially on the session connection.
+   *
+   * @since 3.5.4
+   */
+  public void setNestedSelectParallelism(int nestedSelectParallelism) {
+    this.nestedSelectParallelism = nestedSelectParallelism;
+    nestedSelectThreadPool.setPoolSize(nestedSelectParallelism);
+  }
+
+  /**
+   * Returns the executor service set by {@link #setNestedSelectExecutorService(ExecutorService)}, or else the thread
+   * pool sized by {@link #setNestedSelectParallelism(int)}, which is created on first use.
+   *
+   * @since 3.5.4
+   */
+  public ExecutorService getNestedSelectExecutorService() {
+    return nestedSelectExecutorService != null ? nestedSelectExecutorService : nestedSelectThreadPool.get();
+  }
+
+  /**
+   * Sets the executor service that runs eager nested selects concurrently, in place of the thread pool sized by
+   * {@link #setNestedSelectParallelism(int)}. The lifecycle of the given executor service is managed by the caller.
+   *
+   * @since 3.5.4
+   */
+  public void setNestedSelectExecutorService(ExecutorService nestedSelectExecutorService) {
+    this.nestedSelectExecutorService = nestedSelectExecutorService;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getBulkInsertSize() {
+    return bulkInsertSize;
+  }
+
+  /**
+   * Sets the default maximum number of rows inserted by a single statement of {@link SqlSession#insertBulk}.
+   *
+   * @since 3.5.4
+   */
+  public void setBulkInsertSize(int bulkInsertSize) {
+    this.bulkInsertSize = bulkInsertSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * Sets the number of rows a cursor fetches and maps ahead on a producer thread while the consumer processes
+   * the earlier rows. 0 (the default) fetches each row on the consumer thread.
+   *
+   * @since 3.5.4
+   */
+  public void setCursorPrefetchSize(int cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getAsyncPoolSize() {
+    return asyncPoolSize;
+  }
+
+  /**
+   * Sets the number of threads that run the statements of {@link AsyncSqlSession}s created without an executor.
+   * A value of zero (the default) requires an executor to be passed to each {@link AsyncSqlSession}.
+   *
+   * @since 3.5.4
+   */
+  public void setAsyncPoolSize(int asyncPoolSize) {
+    this.asyncPoolSize = asyncPoolSize;
+    asyncThreadPool.setPoolSize(asyncPoolSize);
+  }
+
+  /**
+   * Returns the executor service set by {@link #setAsyncExecutorService(ExecutorService)}, or else the thread pool
+   * sized by {@link #setAsyncPoolSize(int)}, which is created on first use.
+   *
+   * @since 3.5.4
+   */
+  public ExecutorService getAsyncExecutorService() {
+    return asyncExecutorService != null ? asyncExecutorService : asyncThreadPool.get();
+  }
+
+  /**
+   * Sets the executor service that runs the statements of {@link AsyncSqlSession}s created without an executor,
+   * in place of the thread pool sized by {@link #setAsyncPoolSize(int)}.
+   * The lifecycle of the given executor service is managed by the caller.
+   *
+   * @since 3.5.4
+   */
+  public void setAsyncExecutorService(ExecutorService asyncExecutorService) {
+    this.asyncExecutorService = asyncExecutorService;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getDynamicSqlShapeCacheSize() {
+    return dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * Sets the number of SQL shapes each dynamic statement caches. A shape is identified by the branches the
+   * dynamic elements took and the number of <code>foreach</code> iterations, and maps to the rendered SQL and its
+   * parameters. 0 (the default) renders the SQL on every call.
+   *
+   * @since 3.5.4
+   */
+  public void setDynamicSqlShapeCacheSize(int dynamicSqlShapeCacheSize) {
+    this.dynamicSqlShapeCacheSize = dynamicSqlShapeCacheSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public int getProviderSqlSourceCacheSize() {
+    return providerSqlSourceCacheSize;
+  }
+
+  /**
+   * Sets the number of distinct SQL texts each SQL provider statement caches the parsed <code>SqlSource</code> of.
+   * The provider method is still invoked on every call, but a SQL text it returned before is not parsed by the
+   * language driver again. 0 (the default) parses the provided SQL on every call.
+   *
+   * @since 3.5.4
+   */
+  public void setProviderSqlSourceCacheSize(int providerSqlSourceCacheSize) {
+    this.providerSqlSourceCacheSize = providerSqlSourceCacheSize;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isWarmUpReflectors() {
+    return warmUpReflectors;
+  }
+
+  /**
+   * Sets whether {@link SqlSessionFactoryBuilder#build(Configuration)} creates the <code>Reflector</code> of every
+   * result map, parameter map and statement parameter type up front, in parallel, instead of on first use.
+   * Has no effect when the reflector factory does not cache classes.
+   *
+   * @since 3.5.4
+   */
+  public void setWarmUpReflectors(boolean warmUpReflectors) {
+    this.warmUpReflectors = warmUpReflectors;
+  }
+
+  /**
+   * @since 3.5.4
+   */
+  public boolean isParallelMapperParsing() {
+    return parallelMapperParsing;
+  }
+
+  /**
+   * Sets whether <code>XMLConfigBuilder</code> reads and parses the mapper XML files listed in <code>&lt;mappers&gt;</code>
+   * on several threads. Statements, result maps and caches are still registered on the calling thread in the order
+   * the mappers are listed, so the resulting configuration is the same as with sequential parsing.
+   *
+   * @since 3.5.4
+   */
+  public void setParallelMapperParsing(boolean parallelMapperParsing) {
+    this.parallelMapperParsing = parallelMapperParsing;
+  }
+
+  /**
+   * Shuts down the thread pools this configuration created for {@link #setNestedSelectParallelism(int)} and
+   * {@link #setAsyncPoolSize(int)}.
+   * Executor services set by the caller are not affected. A pool is created again if it is used afterwards.
+   *
+   * @since 3.5.4
+   */
+  public void close() {
+    nestedSelectThreadPool.shutdown();
+    asyncThreadPool.shutdown();
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -522,6 +809,7 @@ public class Configuration {
 
   public void setReflectorFactory(ReflectorFactory reflectorFactory) {
     this.reflectorFactory = reflectorFactory;
+    applyReflectorFactory();
   }
 
   public ObjectFactory getObjectFactory() {
@@ -585,6 +873,14 @@ public class Configuration {
     return MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory);
   }
 
+  /**
+   * 预先解析属性表达式，反复读写同一属性时代替 {@link #newMetaObject(Object)}
+   * @since 3.5.4
+   */
+  public CompiledPropertyPath newPropertyPath(String path) {
+    return new CompiledPropertyPath(path, objectFactory, objectWrapperFactory, reflectorFactory);
+  }
+
   public ParameterHandler newParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     ParameterHandler parameterHandler = mappedStatement.getLang().createParameterHandler(mappedStatement, parameterObject, boundSql);
     parameterHandler = (ParameterHandler) interceptorChain.pluginAll(parameterHandler);
@@ -922,6 +1218,50 @@ public class Configuration {
       }
     }
   }
+
+  /**
+   * 按配置的线程数在第一次使用时创建的线程池，线程数变化或关闭时，已创建的线程池被关闭
+   */
+  protected static class LazyThreadPool {
+
+    private final String threadNamePrefix;
+    private int poolSize;
+    private ExecutorService executorService;
+
+    public LazyThreadPool(String threadNamePrefix) {
+      this.threadNamePrefix = threadNamePrefix;
+    }
+
+    public synchronized void setPoolSize(int poolSize) {
+      if (this.poolSize != poolSize) {
+        shutdown();
+        this.poolSize = poolSize;
+      }
+    }
+
+    /**
+     * @return 线程池，线程数为 0 时返回 null
+     */
+    public synchronized ExecutorService get() {
+      if (executorService == null && poolSize > 0) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(poolSize, runnable -> {
+          Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+      return executorService;
+    }
+
+    public synchronized void shutdown() {
+      if (executorService != null) {
+        executorService.shutdown();
+        executorService = null;
+      }
+    }
+  }
+
   // 受限制的 key 为 String 的HashMap
   protected static class StrictMap<V> extends HashMap<String, V> {
 
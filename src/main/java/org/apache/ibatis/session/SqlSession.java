@@ -17,8 +17,10 @@ package org.apache.ibatis.session;
 
 import java.io.Closeable;
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
@@ -146,6 +148,39 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A Stream offers the same results as a Cursor, fetching them lazily in batches.
+   * Closing the stream closes the underlying cursor.
+   * @param <T> the returned stream element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @return Stream of mapped objects
+   * @since 3.5.4
+   */
+  <T> Stream<T> selectStream(String statement);
+
+  /**
+   * A Stream offers the same results as a Cursor, fetching them lazily in batches.
+   * Closing the stream closes the underlying cursor.
+   * @param <T> the returned stream element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return Stream of mapped objects
+   * @since 3.5.4
+   */
+  <T> Stream<T> selectStream(String statement, Object parameter);
+
+  /**
+   * A Stream offers the same results as a Cursor, fetching them lazily in batches.
+   * Closing the stream closes the underlying cursor.
+   * @param <T> the returned stream element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return Stream of mapped objects
+   * @since 3.5.4
+   */
+  <T> Stream<T> selectStream(String statement, Object parameter, RowBounds rowBounds);
+
   /**
    * ResultHandler 查询的结采对象将由此处指定的 ResultHandler 对象处理
    * Retrieve a single row mapped from the statement key and parameter
@@ -190,6 +225,30 @@ public interface SqlSession extends Closeable {
    */
   int insert(String statement, Object parameter);
 
+  /**
+   * Execute a single-row insert statement for every element of the given collection,
+   * rewriting it into multi-row {@code INSERT ... VALUES (...), (...)} statements of
+   * {@link Configuration#getBulkInsertSize()} rows each. Any generated autoincrement
+   * values will modify the properties of the elements.
+   * @param statement Unique identifier matching the insert statement to execute.
+   * @param parameters The parameter objects, one per inserted row.
+   * @return int The number of rows affected by the inserts.
+   * @since 3.5.4
+   */
+  int insertBulk(String statement, Collection<?> parameters);
+
+  /**
+   * Execute a single-row insert statement for every element of the given collection,
+   * rewriting it into multi-row {@code INSERT ... VALUES (...), (...)} statements.
+   * Any generated autoincrement values will modify the properties of the elements.
+   * @param statement Unique identifier matching the insert statement to execute.
+   * @param parameters The parameter objects, one per inserted row.
+   * @param bulkSize The maximum number of rows inserted by a single statement.
+   * @return int The number of rows affected by the inserts.
+   * @since 3.5.4
+   */
+  int insertBulk(String statement, Collection<?> parameters, int bulkSize);
+
   /**
    * Execute an update statement. The number of rows affected will be returned.
    * @param statement Unique identifier matching the statement to execute.
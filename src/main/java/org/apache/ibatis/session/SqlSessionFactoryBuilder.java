@@ -18,12 +18,24 @@ package org.apache.ibatis.session;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  * Builds {@link SqlSession} instances.
@@ -38,6 +50,8 @@ import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
  */
 public class SqlSessionFactoryBuilder {
 
+  private static final Log log = LogFactory.getLog(SqlSessionFactoryBuilder.class);
+
   public SqlSessionFactory build(Reader reader) {
     return build(reader, null, null);
   }
@@ -97,7 +111,54 @@ public class SqlSessionFactoryBuilder {
   }
 
   public SqlSessionFactory build(Configuration config) {
+    if (config.isWarmUpReflectors()) {
+      warmUpReflectors(config);
+    }
     return new DefaultSqlSessionFactory(config);
   }
 
+  /**
+   * 并行创建结果映射、参数映射和语句参数类型对应的 Reflector，放入 ReflectorFactory 的缓存，避免第一次查询时才解析这些类
+   */
+  private void warmUpReflectors(Configuration config) {
+    ReflectorFactory reflectorFactory = config.getReflectorFactory();
+    if (!reflectorFactory.isClassCacheEnabled()) {
+      return;
+    }
+    Set<Class<?>> types = new HashSet<>();
+    // StrictMap 中简称重复时保存的是 Ambiguity，按 Object 遍历
+    for (Object value : config.getResultMaps()) {
+      if (value instanceof ResultMap) {
+        ResultMap resultMap = (ResultMap) value;
+        types.add(resultMap.getType());
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+          types.add(resultMapping.getJavaType());
+        }
+      }
+    }
+    for (Object value : config.getParameterMaps()) {
+      if (value instanceof ParameterMap) {
+        types.add(((ParameterMap) value).getType());
+      }
+    }
+    for (Object value : config.getMappedStatements()) {
+      if (value instanceof MappedStatement && ((MappedStatement) value).getParameterMap() != null) {
+        types.add(((MappedStatement) value).getParameterMap().getType());
+      }
+    }
+    TypeHandlerRegistry typeHandlerRegistry = config.getTypeHandlerRegistry();
+    types.parallelStream()
+        .filter(type -> type != null && !type.isPrimitive() && !type.isArray()
+            && !Map.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type)
+            && !typeHandlerRegistry.hasTypeHandler(type))
+        .forEach(type -> {
+          try {
+            reflectorFactory.findForClass(type);
+          } catch (RuntimeException | LinkageError e) {
+            // 留到第一次使用时再报错
+            log.debug("Could not warm up the reflector of " + type.getName() + ". Cause: " + e);
+          }
+        });
+  }
+
 }
@@ -21,9 +21,11 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
@@ -209,6 +211,21 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <T> Stream<T> selectStream(String statement) {
+    return sqlSessionProxy.selectStream(statement);
+  }
+
+  @Override
+  public <T> Stream<T> selectStream(String statement, Object parameter) {
+    return sqlSessionProxy.selectStream(statement, parameter);
+  }
+
+  @Override
+  public <T> Stream<T> selectStream(String statement, Object parameter, RowBounds rowBounds) {
+    return sqlSessionProxy.selectStream(statement, parameter, rowBounds);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.selectList(statement);
@@ -249,6 +266,16 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.insert(statement, parameter);
   }
 
+  @Override
+  public int insertBulk(String statement, Collection<?> parameters) {
+    return sqlSessionProxy.insertBulk(statement, parameters);
+  }
+
+  @Override
+  public int insertBulk(String statement, Collection<?> parameters, int bulkSize) {
+    return sqlSessionProxy.insertBulk(statement, parameters, bulkSize);
+  }
+
   @Override
   public int update(String statement) {
     return sqlSessionProxy.update(statement);
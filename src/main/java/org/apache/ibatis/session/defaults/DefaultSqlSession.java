@@ -23,17 +23,22 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.builder.BulkInsertSqlSource;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -156,6 +161,22 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public <T> Stream<T> selectStream(String statement) {
+    return selectStream(statement, null);
+  }
+
+  @Override
+  public <T> Stream<T> selectStream(String statement, Object parameter) {
+    return selectStream(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  @Override
+  public <T> Stream<T> selectStream(String statement, Object parameter, RowBounds rowBounds) {
+    Cursor<T> cursor = selectCursor(statement, parameter, rowBounds);
+    return cursor.stream();
+  }
+
   @Override
   public void select(String statement, Object parameter, ResultHandler handler) {
     select(statement, parameter, RowBounds.DEFAULT, handler);
@@ -190,6 +211,64 @@ public class DefaultSqlSession implements SqlSession {
     return update(statement, parameter);
   }
 
+  @Override
+  public int insertBulk(String statement, Collection<?> parameters) {
+    return insertBulk(statement, parameters, configuration.getBulkInsertSize());
+  }
+
+  @Override
+  public int insertBulk(String statement, Collection<?> parameters, int bulkSize) {
+    if (bulkSize < 1) {
+      throw new IllegalArgumentException("bulkSize must be greater than zero but was " + bulkSize);
+    }
+    try {
+      dirty = true;
+      MappedStatement ms = bulkInsertStatement(configuration.getMappedStatement(statement));
+      List<?> elements = new ArrayList<>(parameters);
+      int rows = 0;
+      for (int from = 0; from < elements.size(); from += bulkSize) {
+        List<?> chunk = new ArrayList<>(elements.subList(from, Math.min(from + bulkSize, elements.size())));
+        rows += executor.update(ms, wrapCollection(chunk));
+      }
+      return rows;
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  /**
+   * 复制 insert 语句，替换为将多个实参合并为一条多行 insert 语句的 BulkInsertSqlSource
+   */
+  private MappedStatement bulkInsertStatement(MappedStatement ms) {
+    if (ms.getSqlCommandType() != SqlCommandType.INSERT) {
+      throw new ExecutorException("Statement '" + ms.getId() + "' is not an insert statement and cannot be used for a bulk insert.");
+    }
+    if (ms.getKeyGenerator() instanceof SelectKeyGenerator) {
+      throw new ExecutorException("Statement '" + ms.getId() + "' uses selectKey, which is not supported by a bulk insert.");
+    }
+    return new MappedStatement.Builder(configuration, ms.getId(), new BulkInsertSqlSource(configuration, ms.getSqlSource()), ms.getSqlCommandType())
+        .resource(ms.getResource())
+        .fetchSize(ms.getFetchSize())
+        .timeout(ms.getTimeout())
+        .statementType(ms.getStatementType())
+        .keyGenerator(ms.getKeyGenerator())
+        .keyProperty(ms.getKeyProperties() == null ? null : String.join(",", ms.getKeyProperties()))
+        .keyColumn(ms.getKeyColumns() == null ? null : String.join(",", ms.getKeyColumns()))
+        .databaseId(ms.getDatabaseId())
+        .lang(ms.getLang())
+        .resultOrdered(ms.isResultOrdered())
+        .resultSets(ms.getResultSets() == null ? null : String.join(",", ms.getResultSets()))
+        .resultMaps(ms.getResultMaps())
+        .resultSetType(ms.getResultSetType())
+        .flushCacheRequired(ms.isFlushCacheRequired())
+        .useCache(ms.isUseCache())
+        .cache(ms.getCache())
+        .parameterMap(ms.getParameterMap())
+        .build();
+  }
+
   @Override
   public int update(String statement) {
     return update(statement, null);
@@ -31,6 +31,7 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -82,20 +83,47 @@ public class ArrayTypeHandler extends BaseTypeHandler<Object> {
       // it's the user's responsibility to properly free() the Array instance
       ps.setArray(i, (Array) parameter);
     } else {
-      if (!parameter.getClass().isArray()) {
+      Class<?> componentType;
+      Object[] elements;
+      if (parameter instanceof Collection) {
+        // 处理集合形式，例如 "id = ANY(#{ids, jdbcType=ARRAY})" 中的 List<Integer>，元素类型由第一个非空元素决定
+        elements = ((Collection<?>) parameter).toArray();
+        componentType = resolveComponentType(elements);
+      } else if (parameter.getClass().isArray()) {
+        //处理数组形式 new String[] { "Hello World" }
+        componentType = parameter.getClass().getComponentType();
+        elements = componentType.isPrimitive() ? boxElements(parameter) : (Object[]) parameter;
+      } else {
         throw new TypeException(
-            "ArrayType Handler requires SQL array or java array parameter and does not support type "
+            "ArrayType Handler requires SQL array, java array or collection parameter and does not support type "
                 + parameter.getClass());
       }
-      //处理数组形式 new String[] { "Hello World" }
-      Class<?> componentType = parameter.getClass().getComponentType();
       String arrayTypeName = resolveTypeName(componentType);
-      Array array = ps.getConnection().createArrayOf(arrayTypeName, (Object[]) parameter);
+      Array array = ps.getConnection().createArrayOf(arrayTypeName, elements);
       ps.setArray(i, array);
       array.free();
     }
   }
 
+  private static Class<?> resolveComponentType(Object[] elements) {
+    for (Object element : elements) {
+      if (element != null) {
+        return element.getClass();
+      }
+    }
+    return Object.class;
+  }
+
+  // createArrayOf() 只接受对象数组，基本类型数组需要逐个装箱
+  private static Object[] boxElements(Object primitiveArray) {
+    int length = java.lang.reflect.Array.getLength(primitiveArray);
+    Object[] elements = new Object[length];
+    for (int i = 0; i < length; i++) {
+      elements[i] = java.lang.reflect.Array.get(primitiveArray, i);
+    }
+    return elements;
+  }
+
   protected String resolveTypeName(Class<?> type) {
     return STANDARD_MAPPING.getOrDefault(type, JdbcType.JAVA_OBJECT.name());
   }
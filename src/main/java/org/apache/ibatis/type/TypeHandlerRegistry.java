@@ -272,6 +272,10 @@ public final class TypeHandlerRegistry {
         handler = pickSoleHandler(jdbcHandlerMap);
       }
     }
+    if (handler == null && jdbcType == JdbcType.ARRAY && isArrayType(type)) {
+      // 没有为该数组或集合类型注册 TypeHandler 时，使用 ARRAY 对应的 TypeHandler 将其绑定为一个 SQL 数组参数
+      handler = jdbcTypeHandlerMap.get(JdbcType.ARRAY);
+    }
     // type drives generics here
     return (TypeHandler<T>) handler;
   }
@@ -303,6 +307,11 @@ public final class TypeHandlerRegistry {
     return jdbcHandlerMap;
   }
 
+  private static boolean isArrayType(Type type) {
+    return type instanceof Class
+        && (((Class<?>) type).isArray() || Collection.class.isAssignableFrom((Class<?>) type));
+  }
+
   // TODO: 2020/4/7 找一个列子，搞明白
   private Map<JdbcType, TypeHandler<?>> getJdbcHandlerMapForEnumInterfaces(Class<?> clazz, Class<?> enumClazz) {
     for (Class<?> iface : clazz.getInterfaces()) {
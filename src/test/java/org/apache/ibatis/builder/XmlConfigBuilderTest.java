@@ -15,7 +15,9 @@
  */
 package org.apache.ibatis.builder;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.math.RoundingMode;
 import java.sql.CallableStatement;
@@ -25,6 +27,7 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
+import java.util.stream.Collectors;
 
 import org.apache.ibatis.builder.mapper.CustomMapper;
 import org.apache.ibatis.builder.typehandler.CustomIntegerTypeHandler;
@@ -43,6 +46,7 @@ import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
@@ -79,6 +83,7 @@ class XmlConfigBuilderTest {
       assertThat(config.getAutoMappingUnknownColumnBehavior()).isEqualTo(AutoMappingUnknownColumnBehavior.NONE);
       assertThat(config.isCacheEnabled()).isTrue();
       assertThat(config.getProxyFactory()).isInstanceOf(JavassistProxyFactory.class);
+      assertThat(config.getExpressionEngine()).isInstanceOf(OgnlExpressionEngine.class);
       assertThat(config.isLazyLoadingEnabled()).isFalse();
       assertThat(config.isAggressiveLazyLoading()).isFalse();
       assertThat(config.isMultipleResultSetsEnabled()).isTrue();
@@ -256,6 +261,47 @@ class XmlConfigBuilderTest {
     }
   }
 
+  @Test
+  void shouldParseMappersInParallel() throws Exception {
+    String resource = "org/apache/ibatis/builder/MapperConfig.xml";
+    Configuration sequential;
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      sequential = new XMLConfigBuilder(inputStream).parse();
+    }
+    String config;
+    try (Reader reader = Resources.getResourceAsReader(resource)) {
+      config = new BufferedReader(reader).lines().collect(Collectors.joining("\n"))
+          .replace("<settings>", "<settings>\n    <setting name=\"parallelMapperParsing\" value=\"true\"/>");
+    }
+    Configuration parallel = new XMLConfigBuilder(new StringReader(config)).parse();
+
+    assertTrue(parallel.isParallelMapperParsing());
+    assertThat(parallel.getMappedStatementNames()).isEqualTo(sequential.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).isEqualTo(sequential.getResultMapNames());
+    assertThat(parallel.getCacheNames()).isEqualTo(sequential.getCacheNames());
+    assertThat(parallel.getSqlFragments().keySet()).isEqualTo(sequential.getSqlFragments().keySet());
+  }
+
+  @Test
+  void shouldReportMissingMapperResourceWhenParsingInParallel() {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+            + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+            + "<configuration>\n"
+            + "  <settings>\n"
+            + "    <setting name=\"parallelMapperParsing\" value=\"true\"/>\n"
+            + "  </settings>\n"
+            + "  <mappers>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+            + "    <mapper resource=\"a/b/c/Missing.xml\"/>\n"
+            + "  </mappers>\n"
+            + "</configuration>\n";
+
+    XMLConfigBuilder builder = new XMLConfigBuilder(new StringReader(MAPPER_CONFIG));
+    when(builder).parse();
+    then(caughtException()).isInstanceOf(BuilderException.class)
+      .hasMessageContaining("Could not find resource a/b/c/Missing.xml");
+  }
+
   @Test
   void unknownSettings() {
     final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
@@ -16,6 +16,8 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -36,11 +38,15 @@ import org.apache.ibatis.scripting.xmltags.IfSqlNode;
 import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
+import org.apache.ibatis.scripting.xmltags.TrimSqlNode;
+import org.apache.ibatis.scripting.xmltags.VarDeclSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.JdbcType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -376,6 +382,176 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldBindPrecompiledPlaceholdersInOrder() throws Exception {
+    final Map<String, Object> param = new HashMap<>();
+    param.put("name", "Steve");
+    param.put("ids", Arrays.asList(1, 2));
+    final String expected = "SELECT * FROM BLOG WHERE  NAME = ? AND ID in (?,?) ORDER BY NAME";
+    DynamicSqlSource source = createDynamicSqlSource(
+        new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new IfSqlNode(mixedContents(new StaticTextSqlNode("AND NAME = #{name, jdbcType=VARCHAR} ")), "name != null"),
+            new ForEachSqlNode(new Configuration(), mixedContents(
+                new StaticTextSqlNode("#{id}")), "ids", null, "id", "AND ID in (", ")", ","))),
+        new TextSqlNode("ORDER BY ${'NAME'}"));
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals(expected, boundSql.getSql());
+    assertEquals(3, boundSql.getParameterMappings().size());
+    assertEquals("name", boundSql.getParameterMappings().get(0).getProperty());
+    assertEquals(JdbcType.VARCHAR, boundSql.getParameterMappings().get(0).getJdbcType());
+    assertEquals("__frch_id_0", boundSql.getParameterMappings().get(1).getProperty());
+    assertEquals("__frch_id_1", boundSql.getParameterMappings().get(2).getProperty());
+    assertEquals(2, boundSql.getAdditionalParameter("__frch_id_1"));
+  }
+
+  @Test
+  void shouldParsePlaceholdersProducedBySubstitution() throws Exception {
+    final Map<String, Object> param = new HashMap<>();
+    param.put("column", "NAME = #{name}");
+    param.put("id", 1);
+    final String expected = "SELECT * FROM BLOG WHERE ID = ? AND NAME = ?";
+    DynamicSqlSource source = createDynamicSqlSource(
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}"),
+        new TextSqlNode("AND ${column}"));
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals(expected, boundSql.getSql());
+    assertEquals(2, boundSql.getParameterMappings().size());
+    assertEquals("id", boundSql.getParameterMappings().get(0).getProperty());
+    assertEquals("name", boundSql.getParameterMappings().get(1).getProperty());
+  }
+
+  @Test
+  void shouldSubstitutePrecompiledExpressionsAroundEscapedTokens() throws Exception {
+    final Map<String, Object> param = new HashMap<>();
+    param.put("column", "NAME");
+    param.put("id", 1);
+    TextSqlNode escapedOnly = new TextSqlNode("SELECT '\\${literal}' FROM BLOG");
+    assertFalse(escapedOnly.isDynamic());
+    DynamicSqlSource source = createDynamicSqlSource(
+        new TextSqlNode("SELECT ${column}, '\\${literal}' FROM BLOG WHERE ID = #{id} ORDER BY ${column}"));
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals("SELECT NAME, '${literal}' FROM BLOG WHERE ID = ? ORDER BY NAME", boundSql.getSql());
+    assertEquals("id", boundSql.getParameterMappings().get(0).getProperty());
+  }
+
+  @Test
+  void shouldTrimMixedCaseOverridesInPlace() throws Exception {
+    final String expected = "SELECT * FROM BLOG WHERE (  ID = ? or NAME = ?  )";
+    DynamicSqlSource source = createDynamicSqlSource(
+        new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new TrimSqlNode(new Configuration(), mixedContents(
+            new StaticTextSqlNode("  \n oR ID = ? or NAME = ? And \t ")), "WHERE (", "OR |AND ", ")", " and"));
+    BoundSql boundSql = source.getBoundSql(null);
+    assertEquals(expected, boundSql.getSql());
+  }
+
+  @Test
+  void shouldReuseRenamedParameterMappingsAcrossExecutions() throws Exception {
+    final Map<String, Object> param = new HashMap<>();
+    param.put("ids", Arrays.asList(1, 2));
+    DynamicSqlSource source = createDynamicSqlSource(
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(new Configuration(), mixedContents(
+            new StaticTextSqlNode("#{id}")), "ids", null, "id", "(", ")", ","));
+    BoundSql first = source.getBoundSql(param);
+    BoundSql second = source.getBoundSql(param);
+    assertEquals("__frch_id_1", second.getParameterMappings().get(1).getProperty());
+    assertSame(first.getParameterMappings().get(1), second.getParameterMappings().get(1));
+  }
+
+  @Test
+  void shouldReuseCachedShapeWithNewParameterValues() {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(configuration, mixedContents(new StaticTextSqlNode("#{id}")), "ids", null, "id", "(", ")", ","),
+        new TextSqlNode("ORDER BY ${column}")));
+    final Map<String, Object> param = new HashMap<>();
+    param.put("ids", Arrays.asList(1, 2));
+    param.put("column", "ID");
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? ) ORDER BY ID", source.getBoundSql(param).getSql());
+
+    param.put("ids", Arrays.asList(3, 4));
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? ) ORDER BY ID", boundSql.getSql());
+    assertEquals("__frch_id_1", boundSql.getParameterMappings().get(1).getProperty());
+    assertEquals(4, boundSql.getAdditionalParameter("__frch_id_1"));
+
+    param.put("ids", Arrays.asList(5, 6, 7));
+    param.put("column", "NAME");
+    boundSql = source.getBoundSql(param);
+    assertEquals("SELECT * FROM BLOG WHERE ID in (  ? , ? , ? ) ORDER BY NAME", boundSql.getSql());
+    assertEquals(3, boundSql.getParameterMappings().size());
+  }
+
+  @Test
+  void shouldDistinguishShapesOfTrimmedAndPlainText() {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(configuration, mixedContents(
+            new IfSqlNode(mixedContents(new StaticTextSqlNode("AND ID = #{id}")), "inWhere"))),
+        new IfSqlNode(mixedContents(new StaticTextSqlNode("AND ID = #{id}")), "!inWhere")));
+    final Map<String, Object> param = new HashMap<>();
+    param.put("id", 1);
+    param.put("inWhere", true);
+    assertEquals("SELECT * FROM BLOG WHERE  ID = ?", source.getBoundSql(param).getSql());
+    param.put("inWhere", false);
+    assertEquals("SELECT * FROM BLOG  AND ID = ?", source.getBoundSql(param).getSql());
+    param.put("inWhere", true);
+    assertEquals("SELECT * FROM BLOG WHERE  ID = ?", source.getBoundSql(param).getSql());
+  }
+
+  @Test
+  void shouldRenderOnceWhenPlaceholdersAreNotPrecompiled() {
+    final Configuration configuration = new Configuration();
+    // 包含转义字符的文本不会预编译，其中的 "#{}" 占位符与预编译的占位符在同一次生成的 SQL 语句上合并
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new VarDeclSqlNode("pattern", "counter.pattern"),
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}"),
+        new StaticTextSqlNode("AND NAME LIKE #{pattern} ESCAPE '\\'"),
+        new StaticTextSqlNode("AND AUTHOR_ID = #{id}")));
+    final Counter counter = new Counter();
+    final Map<String, Object> param = new HashMap<>();
+    param.put("id", 1);
+    param.put("counter", counter);
+    BoundSql boundSql = source.getBoundSql(param);
+    assertEquals("SELECT * FROM BLOG WHERE ID = ? AND NAME LIKE ? ESCAPE '\\' AND AUTHOR_ID = ?", boundSql.getSql());
+    assertEquals(3, boundSql.getParameterMappings().size());
+    assertEquals("id", boundSql.getParameterMappings().get(0).getProperty());
+    assertEquals("pattern", boundSql.getParameterMappings().get(1).getProperty());
+    assertEquals("id", boundSql.getParameterMappings().get(2).getProperty());
+    assertEquals("B%", boundSql.getAdditionalParameter("pattern"));
+    assertEquals(1, counter.evaluations);
+  }
+
+  @Test
+  void shouldRenderOnceWhenShapeIsCached() {
+    final Configuration configuration = new Configuration();
+    configuration.setDynamicSqlShapeCacheSize(16);
+    // 形状在生成 SQL 语句的同时记录，未预编译的占位符解析后与形状一起缓存
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new VarDeclSqlNode("pattern", "counter.pattern"),
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}"),
+        new StaticTextSqlNode("AND NAME LIKE #{pattern} ESCAPE '\\'")));
+    final Counter counter = new Counter();
+    final Map<String, Object> param = new HashMap<>();
+    param.put("id", 1);
+    param.put("counter", counter);
+    BoundSql first = source.getBoundSql(param);
+    assertEquals(1, counter.evaluations);
+
+    param.put("id", 2);
+    BoundSql second = source.getBoundSql(param);
+    assertEquals(2, counter.evaluations);
+    assertEquals("SELECT * FROM BLOG WHERE ID = ? AND NAME LIKE ? ESCAPE '\\'", second.getSql());
+    assertSame(first.getParameterMappings().get(1), second.getParameterMappings().get(1));
+    assertEquals("B%", second.getAdditionalParameter("pattern"));
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
@@ -399,6 +575,15 @@ class DynamicSqlSourceTest extends BaseDataTest {
     Assertions.assertEquals("id=", sql);
   }
 
+  public static class Counter {
+    private int evaluations;
+
+    public String getPattern() {
+      evaluations++;
+      return "B%";
+    }
+  }
+
   public static class Bean {
     public String id;
     Bean(String property) {
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CursorTest {
+
+  @Test
+  void shouldFetchBatchesFromIterator() {
+    Cursor<Integer> cursor = new SharedIteratorCursor<>(Arrays.asList(1, 2, 3, 4, 5).iterator());
+    assertEquals(Arrays.asList(1, 2), cursor.nextBatch(2));
+    assertEquals(Arrays.asList(3, 4), cursor.nextBatch(2));
+    assertEquals(Arrays.asList(5), cursor.nextBatch(2));
+    assertTrue(cursor.nextBatch(2).isEmpty());
+  }
+
+  @Test
+  void shouldFailWhenIteratorCanBeOpenedOnlyOnce() {
+    Cursor<Integer> cursor = new IteratorCursor<>(Arrays.asList(1, 2, 3).iterator());
+    assertEquals(Arrays.asList(1, 2), cursor.nextBatch(2));
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> cursor.nextBatch(2));
+    assertTrue(e.getMessage().contains("must override nextBatch()"));
+  }
+
+  private static class IteratorCursor<T> implements Cursor<T> {
+    final Iterator<T> iterator;
+    private boolean iteratorRetrieved;
+
+    IteratorCursor(Iterator<T> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return !iterator.hasNext();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return -1;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      // 与 DefaultCursor 一致，只允许打开一个迭代器
+      if (iteratorRetrieved) {
+        throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+      }
+      iteratorRetrieved = true;
+      return iterator;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class SharedIteratorCursor<T> extends IteratorCursor<T> {
+
+    SharedIteratorCursor(Iterator<T> iterator) {
+      super(iterator);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return iterator;
+    }
+  }
+
+}
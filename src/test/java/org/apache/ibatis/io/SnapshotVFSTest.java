@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotVFSTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldBeInvalidWithoutSnapshotFile() {
+    assertFalse(new SnapshotVFS(null).isValid());
+  }
+
+  @Test
+  void shouldReuseListingWhileJarIsUnchanged() throws Exception {
+    File jar = writeJar("a.jar", "com/example/A.class", "com/example/B.class", "other/C.class");
+    File snapshot = tempDir.resolve("snapshot/vfs.bin").toFile();
+    URL url = new URL("jar:" + jar.toURI().toURL() + "!/com/example");
+
+    SnapshotVFS vfs = new SnapshotVFS(snapshot);
+    List<String> listed = vfs.list(url, "com/example");
+    assertEquals(Arrays.asList("com/example/A.class", "com/example/B.class"), listed);
+    // 扫描结果在 flush() 时一次性写入
+    assertFalse(snapshot.isFile());
+    vfs.flush();
+    assertTrue(snapshot.isFile());
+
+    // 内容被替换但大小和修改时间不变时，使用快照中的结果而不再读取 Jar 包
+    long length = jar.length();
+    long lastModified = jar.lastModified();
+    Files.write(jar.toPath(), new byte[(int) length]);
+    assertTrue(jar.setLastModified(lastModified));
+    assertEquals(listed, new SnapshotVFS(snapshot).list(url, "com/example"));
+  }
+
+  @Test
+  void shouldRescanChangedJar() throws Exception {
+    File jar = writeJar("b.jar", "com/example/A.class");
+    File snapshot = tempDir.resolve("vfs.bin").toFile();
+    URL url = new URL("jar:" + jar.toURI().toURL() + "!/com/example");
+    SnapshotVFS vfs = new SnapshotVFS(snapshot);
+    assertEquals(Arrays.asList("com/example/A.class"), vfs.list(url, "com/example"));
+    vfs.flush();
+
+    long lastModified = jar.lastModified();
+    writeJar("b.jar", "com/example/A.class", "com/example/D.class");
+    assertTrue(jar.setLastModified(lastModified + 2000));
+    assertEquals(Arrays.asList("com/example/A.class", "com/example/D.class"), new SnapshotVFS(snapshot).list(url, "com/example"));
+  }
+
+  @Test
+  void shouldIgnoreSnapshotOfAnotherFormat() throws Exception {
+    File jar = writeJar("c.jar", "com/example/A.class");
+    File snapshot = tempDir.resolve("vfs.bin").toFile();
+    Files.write(snapshot.toPath(), "not a snapshot".getBytes());
+    URL url = new URL("jar:" + jar.toURI().toURL() + "!/com/example");
+    assertEquals(Arrays.asList("com/example/A.class"), new SnapshotVFS(snapshot).list(url, "com/example"));
+  }
+
+  @Test
+  void shouldNotWriteSnapshotWithoutNewListings() throws Exception {
+    File jar = writeJar("d.jar", "com/example/A.class");
+    File snapshot = tempDir.resolve("vfs.bin").toFile();
+    URL url = new URL("jar:" + jar.toURI().toURL() + "!/com/example");
+    SnapshotVFS vfs = new SnapshotVFS(snapshot);
+    vfs.list(url, "com/example");
+    vfs.flush();
+    long lastModified = snapshot.lastModified();
+    assertTrue(snapshot.setLastModified(lastModified - 2000));
+
+    SnapshotVFS reloaded = new SnapshotVFS(snapshot);
+    reloaded.list(url, "com/example");
+    reloaded.flush();
+    assertEquals(lastModified - 2000, snapshot.lastModified());
+  }
+
+  private File writeJar(String name, String... entries) throws IOException {
+    File jar = tempDir.resolve(name).toFile();
+    try (OutputStream out = Files.newOutputStream(jar.toPath()); JarOutputStream jarOut = new JarOutputStream(out)) {
+      for (String entry : entries) {
+        jarOut.putNextEntry(new JarEntry(entry));
+        jarOut.write(new byte[] { 1 });
+        jarOut.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+}
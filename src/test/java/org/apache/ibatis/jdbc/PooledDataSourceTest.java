@@ -91,6 +91,83 @@ class PooledDataSourceTest extends BaseDataTest {
     c.close();
   }
 
+  @Test
+  void shouldReusePreparedStatementsAcrossConnectionCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolPreparedStatementCacheSize(1);
+      PreparedStatement first;
+      try (Connection c = ds.getConnection(); PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS")) {
+        first = st.unwrap(PreparedStatement.class);
+        assertSame(c, st.getConnection());
+      }
+      try (Connection c = ds.getConnection()) {
+        try (PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS")) {
+          assertSame(first, st.unwrap(PreparedStatement.class));
+          try (ResultSet rs = st.executeQuery()) {
+            assertTrue(rs.next());
+          }
+        }
+        // a different result set type is cached separately and evicts the least recently used statement
+        try (PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS",
+            ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)) {
+          assertNotSame(first, st.unwrap(PreparedStatement.class));
+        }
+        assertTrue(first.isClosed());
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldResetPreparedStatementsReturnedToCache() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolPreparedStatementCacheSize(1);
+      try (Connection c = ds.getConnection()) {
+        try (PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS")) {
+          st.setQueryTimeout(10);
+          st.setFetchSize(50);
+          st.setMaxRows(1);
+        }
+        try (PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS")) {
+          assertEquals(0, st.getQueryTimeout());
+          assertEquals(0, st.getFetchSize());
+          assertEquals(0, st.getMaxRows());
+          assertEquals(ResultSet.FETCH_FORWARD, st.getFetchDirection());
+        }
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotShareCheckedOutStatements() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolPreparedStatementCacheSize(5);
+      try (Connection c = ds.getConnection()) {
+        PreparedStatement st = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+        PreparedStatement other = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+        PreparedStatement real = st.unwrap(PreparedStatement.class);
+        PreparedStatement otherReal = other.unwrap(PreparedStatement.class);
+        assertNotSame(real, otherReal);
+        st.close();
+        assertTrue(st.isClosed());
+        assertFalse(real.isClosed());
+        assertThrows(SQLException.class, st::executeQuery);
+        // only one statement is kept for the same SQL
+        other.close();
+        assertTrue(otherReal.isClosed());
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Disabled("See the comments")
   @Test
   void shouldReconnectWhenServerKilledLeakedConnection() throws Exception {
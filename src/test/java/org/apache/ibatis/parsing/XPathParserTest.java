@@ -16,19 +16,26 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
 
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
 class XPathParserTest {
@@ -179,6 +186,33 @@ class XPathParserTest {
     }
   }
 
+  @Test
+  void shouldSelectElementsByNameLikeXPath() throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    DocumentBuilder builder = factory.newDocumentBuilder();
+    Document document;
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      document = builder.parse(inputStream);
+    }
+    XPathParser parser = new XPathParser(document, false);
+    XPath xpath = XPathFactory.newInstance().newXPath();
+    Node birthDate = (Node) xpath.evaluate("/employee/birth_date", document, XPathConstants.NODE);
+    String[] expressions = { "/employee", "/employee/birth_date/month", "/employee/missing", "/missing/height",
+        "employee", "height|weight|blah", "weight|first_name", "birth_date", "/employee/*", "employee/height", "height[@units='ft']" };
+    for (Object root : new Object[] { document, document.getDocumentElement(), birthDate }) {
+      for (String expression : expressions) {
+        NodeList expected = (NodeList) xpath.evaluate(expression, root, XPathConstants.NODESET);
+        List<XNode> actual = parser.evalNodes(root, expression);
+        assertEquals(expected.getLength(), actual.size(), expression);
+        for (int i = 0; i < actual.size(); i++) {
+          assertSame(expected.item(i), actual.get(i).getNode(), expression);
+        }
+        XNode first = parser.evalNode(root, expression);
+        assertSame(xpath.evaluate(expression, root, XPathConstants.NODE), first == null ? null : first.getNode(), expression);
+      }
+    }
+  }
+
   private void testEvalMethod(XPathParser parser) {
     assertEquals((Long) 1970L, parser.evalLong("/employee/birth_date/year"));
     assertEquals((short) 6, (short) parser.evalShort("/employee/birth_date/month"));
@@ -17,7 +17,10 @@ package org.apache.ibatis.plugin;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +41,54 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void shouldReuseProxyClassForSameTargetType() {
+    Object first = new AlwaysMapPlugin().plugin(new HashMap<>());
+    Object second = new AlwaysMapPlugin().plugin(new HashMap<>());
+    assertNotSame(first, second);
+    assertSame(first.getClass(), second.getClass());
+  }
+
+  @Test
+  void shouldNotWrapTargetWithoutInterceptedInterfaces() {
+    Object target = new Object();
+    assertSame(target, new AlwaysMapPlugin().plugin(target));
+  }
+
+  @Test
+  void shouldFailForInterceptorWithoutIntercepts() {
+    Interceptor interceptor = Invocation::proceed;
+    assertThrows(PluginException.class, () -> interceptor.plugin(new HashMap<>()));
+    assertThrows(PluginException.class, () -> interceptor.plugin(new HashMap<>()));
+  }
+
+  @Test
+  void chainShouldSkipInterceptorsForOtherTypesButAlwaysCallCustomPlugin() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.addInterceptor(new AlwaysMapPlugin());
+    List<Object> plugged = new ArrayList<>();
+    chain.addInterceptor(new Interceptor() {
+      @Override
+      public Object intercept(Invocation invocation) {
+        return null;
+      }
+
+      @Override
+      public Object plugin(Object target) {
+        plugged.add(target);
+        return target;
+      }
+    });
+
+    Object target = new Object();
+    assertSame(target, chain.pluginAll(target));
+    assertEquals(Collections.singletonList(target), plugged);
+
+    Map map = (Map) chain.pluginAll(new HashMap());
+    assertEquals("Always", map.get("Anything"));
+    assertEquals(2, plugged.size());
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.sql.Connection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+
+/**
+ * Counts the statements prepared through a configuration, and the threads that prepared them.
+ */
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+public class StatementCounter implements Interceptor {
+
+  private final AtomicInteger preparedStatements = new AtomicInteger();
+  private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    preparedStatements.incrementAndGet();
+    threadNames.add(Thread.currentThread().getName());
+    return invocation.proceed();
+  }
+
+  public int getPreparedStatements() {
+    return preparedStatements.get();
+  }
+
+  public Set<String> getThreadNames() {
+    return threadNames;
+  }
+
+  public void reset() {
+    preparedStatements.set(0);
+    threadNames.clear();
+  }
+
+}
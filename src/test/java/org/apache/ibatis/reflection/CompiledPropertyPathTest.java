@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.junit.jupiter.api.Test;
+
+class CompiledPropertyPathTest {
+
+  private static CompiledPropertyPath compile(String path) {
+    return new CompiledPropertyPath(path, SystemMetaObject.DEFAULT_OBJECT_FACTORY, new DefaultObjectWrapperFactory(), new DefaultReflectorFactory());
+  }
+
+  @Test
+  void shouldGetAndSetNestedProperty() {
+    RichType rich = new RichType();
+    CompiledPropertyPath path = compile("richType.richType.richProperty");
+    assertNull(path.getValue(rich));
+    path.setValue(rich, "foo");
+    assertEquals("foo", path.getValue(rich));
+    assertEquals("foo", SystemMetaObject.forObject(rich).getValue("richType.richType.richProperty"));
+    path.setValue(rich, "bar");
+    assertEquals("bar", rich.getRichType().getRichType().getRichProperty());
+  }
+
+  @Test
+  void shouldGetAndSetFieldMapAndListItem() {
+    RichType rich = new RichType();
+    rich.setRichType(new RichType());
+    compile("richType.richField").setValue(rich, "field");
+    compile("richType.richMap.key").setValue(rich, "mapped");
+    compile("richType.richList[0]").setValue(rich, "item");
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    assertEquals("field", meta.getValue("richType.richField"));
+    assertEquals("mapped", compile("richType.richMap.key").getValue(rich));
+    assertEquals("mapped", compile("richType.richMap[key]").getValue(rich));
+    assertEquals("item", compile("richType.richList[0]").getValue(rich));
+  }
+
+  @Test
+  void shouldReadFromMapRoot() {
+    Map<String, Object> map = new HashMap<>();
+    RichType rich = new RichType();
+    rich.setRichProperty("foo");
+    map.put("rich", rich);
+    CompiledPropertyPath path = compile("rich.richProperty");
+    assertEquals("foo", path.getValue(map));
+    path.setValue(map, "bar");
+    assertEquals("bar", rich.getRichProperty());
+  }
+
+  @Test
+  void shouldFollowRuntimeTypeOfEachSegment() {
+    CompiledPropertyPath path = compile("value.richProperty");
+    RichType rich = new RichType();
+    rich.setRichProperty("bean");
+    Map<String, Object> nested = new HashMap<>();
+    nested.put("richProperty", "map");
+    Map<String, Object> first = new HashMap<>();
+    first.put("value", rich);
+    Map<String, Object> second = new HashMap<>();
+    second.put("value", nested);
+    assertEquals("bean", path.getValue(first));
+    assertEquals("map", path.getValue(second));
+    assertEquals("bean", path.getValue(first));
+  }
+
+  @Test
+  void shouldThrowSameExceptionAsMetaObjectForUnknownProperty() {
+    RichType rich = new RichType();
+    rich.setRichType(new RichType());
+    ReflectionException expected = assertThrows(ReflectionException.class,
+        () -> SystemMetaObject.forObject(rich).getValue("richType.unknown"));
+    ReflectionException actual = assertThrows(ReflectionException.class, () -> compile("richType.unknown").getValue(rich));
+    assertEquals(expected.getMessage(), actual.getMessage());
+  }
+
+}
@@ -18,10 +18,14 @@ package org.apache.ibatis.reflection;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleGetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleSetFieldInvoker;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -322,4 +326,48 @@ class ReflectorTest {
             "Ambiguous setters defined for property 'bool' in class '" + Bean.class.getName().replace("$", "\\$")
                 + "' with types '(java.lang.Integer|boolean)' and '(java.lang.Integer|boolean)'\\.");
   }
+
+  @Test
+  void shouldAccessPropertiesThroughMethodHandles() throws Exception {
+    @SuppressWarnings("unused")
+    class Bean {
+      private int count;
+      private String name;
+      private final String constant = "c";
+      public int getCount() {return count;}
+      public void setCount(int count) {this.count = count;}
+      public String getBroken() {throw new IllegalStateException("broken");}
+    }
+    ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    assertSame(reflector, reflectorFactory.findForClass(Bean.class));
+    assertTrue(reflector.getGetInvoker("count") instanceof MethodHandleMethodInvoker);
+    assertTrue(reflector.getSetInvoker("count") instanceof MethodHandleMethodInvoker);
+    assertTrue(reflector.getGetInvoker("name") instanceof MethodHandleGetFieldInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof MethodHandleSetFieldInvoker);
+    assertFalse(reflector.getSetInvoker("constant") instanceof MethodHandleSetFieldInvoker);
+
+    Bean bean = new Bean();
+    reflector.getSetInvoker("count").invoke(bean, new Object[] { 3 });
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "n" });
+    assertEquals(3, reflector.getGetInvoker("count").invoke(bean, null));
+    assertEquals("n", reflector.getGetInvoker("name").invoke(bean, null));
+    assertEquals("c", reflector.getGetInvoker("constant").invoke(bean, null));
+
+    when(reflector.getGetInvoker("broken")).invoke(bean, null);
+    then(caughtException()).isInstanceOf(InvocationTargetException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void shouldFallBackToReflectionForInaccessibleJdkMembers() throws Exception {
+    // java.util.Date 的私有字段在 JDK 9+ 中无法 setAccessible，子类的 Reflector 仍应能创建
+    @SuppressWarnings("serial")
+    class MyDate extends java.util.Date {
+    }
+    Reflector reflector = new MethodHandleReflectorFactory().findForClass(MyDate.class);
+    MyDate date = new MyDate();
+    reflector.getSetInvoker("time").invoke(date, new Object[] { 1000L });
+    assertEquals(1000L, reflector.getGetInvoker("time").invoke(date, null));
+  }
 }
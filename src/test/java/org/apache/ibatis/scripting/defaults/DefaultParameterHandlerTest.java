@@ -18,9 +18,11 @@ package org.apache.ibatis.scripting.defaults;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.*;
@@ -36,6 +38,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -70,6 +73,67 @@ class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  void setParametersReadsBeanMapAndNestedProperties() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    List<ParameterMapping> parameterMappings = Arrays.asList(
+        new ParameterMapping.Builder(config, "id", registry.getTypeHandler(Integer.class)).build(),
+        new ParameterMapping.Builder(config, "name", registry.getTypeHandler(String.class)).build(),
+        new ParameterMapping.Builder(config, "child.name", registry.getTypeHandler(String.class)).build());
+    Bean child = new Bean(2, "child");
+    Bean bean = new Bean(1, "parent");
+    bean.setChild(child);
+
+    for (int i = 0; i < 2; i++) {
+      PreparedStatement ps = mock(PreparedStatement.class);
+      BoundSql boundSql = new BoundSql(config, "some select statement", parameterMappings, bean);
+      new DefaultParameterHandler(mappedStatement, bean, boundSql).setParameters(ps);
+      verify(ps).setInt(1, 1);
+      verify(ps).setString(2, "parent");
+      verify(ps).setString(3, "child");
+    }
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("id", 3);
+    map.put("name", "map");
+    map.put("child", child);
+    PreparedStatement ps = mock(PreparedStatement.class);
+    BoundSql boundSql = new BoundSql(config, "some select statement", parameterMappings, map);
+    new DefaultParameterHandler(mappedStatement, map, boundSql).setParameters(ps);
+    verify(ps).setInt(1, 3);
+    verify(ps).setString(2, "map");
+    verify(ps).setString(3, "child");
+  }
+
+  public static class Bean {
+    private final Integer id;
+    private final String name;
+    private Bean child;
+
+    Bean(Integer id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    public Integer getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Bean getChild() {
+      return child;
+    }
+
+    public void setChild(Bean child) {
+      this.child = child;
+    }
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
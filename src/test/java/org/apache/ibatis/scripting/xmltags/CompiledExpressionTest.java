@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ognl.Ognl;
+import ognl.OgnlException;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private static final ReflectorFactory REFLECTOR_FACTORY = new DefaultReflectorFactory();
+
+  private static final String[] EXPRESSIONS = {
+      "id", "username", "password", "username == 'cbegin'", "username != null and username != ''",
+      "password == null or id > 0", "!(id >= 2)", "id < 2 and id <= 1 and id gt 0", "not (username eq 'norm')",
+      "username.length() > 3", "username.isEmpty()", "favouriteSection != null", "id == 1L", "id == 1.0",
+      "names.size() > 1", "!names.isEmpty()", "options.limit", "options.isEmpty()", "options.size", "author.email",
+      "author.id + 1 > 1", "names[0] == 'ab'", "id and username", "password or id", "_parameter.id > 0", "missing == null"};
+
+  @Test
+  void shouldEvaluateLikeOgnl() throws Exception {
+    Map<String, Object> options = new HashMap<>();
+    options.put("limit", 10);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 1);
+    parameter.put("username", "cbegin");
+    parameter.put("password", null);
+    parameter.put("favouriteSection", Section.NEWS);
+    parameter.put("names", Arrays.asList("ab", "cd"));
+    parameter.put("options", options);
+    parameter.put("author", new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS));
+    DynamicContext context = new DynamicContext(new Configuration(), parameter);
+    for (String expression : EXPRESSIONS) {
+      Map ognlContext = Ognl.createDefaultContext(context.getBindings(), new OgnlMemberAccess(), new OgnlClassResolver(), null);
+      Object expected = Ognl.getValue(Ognl.parseExpression(expression), ognlContext, context.getBindings());
+      CompiledExpression compiled = CompiledExpression.compile(Ognl.parseExpression(expression));
+      Object actual = compiled.getValue(context.getBindings(), REFLECTOR_FACTORY);
+      if (actual != CompiledExpression.FALLBACK) {
+        assertEquals(expected, actual, expression);
+      }
+      assertEquals(expected, OgnlCache.getValue(expression, context.getBindings()), expression);
+    }
+  }
+
+  @Test
+  void shouldCompileCommonTestExpressions() throws Exception {
+    assertTrue(CompiledExpression.compile(Ognl.parseExpression("name != null and name != '' or ids.size() > 0")).isCompiled());
+    assertTrue(CompiledExpression.compile(Ognl.parseExpression("!author.bio.isEmpty()")).isCompiled());
+    assertFalse(CompiledExpression.compile(Ognl.parseExpression("id + 1 > 1")).isCompiled());
+    assertFalse(CompiledExpression.compile(Ognl.parseExpression("names[0]")).isCompiled());
+    assertFalse(CompiledExpression.compile(Ognl.parseExpression("name.indexOf('v')")).isCompiled());
+  }
+
+  @Test
+  void shouldEvaluateStepsHandledByOgnlAccessorsWithOgnl() throws Exception {
+    CompiledExpression compiled = CompiledExpression.compile(Ognl.parseExpression("items.size"));
+    assertEquals(2, compiled.getValue(Collections.singletonMap("items", Arrays.asList(1, 2)), REFLECTOR_FACTORY));
+    assertThrows(OgnlException.class, () -> compiled.getValue(Collections.singletonMap("items", null), REFLECTOR_FACTORY));
+    assertThrows(OgnlException.class, () -> compiled.getValue(Collections.singletonMap("items", new Author()), REFLECTOR_FACTORY));
+    assertEquals(3, CompiledExpression.compile(Ognl.parseExpression("items.length"))
+        .getValue(Collections.singletonMap("items", new int[3]), REFLECTOR_FACTORY));
+    CompiledExpression email = CompiledExpression.compile(Ognl.parseExpression("items.email"));
+    assertEquals("cbegin@apache.org", email.getValue(Collections.singletonMap("items",
+        new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS)), REFLECTOR_FACTORY));
+  }
+
+  @Test
+  void shouldInvokeGettersOnceWhenStepIsEvaluatedByOgnl() {
+    AtomicInteger calls = new AtomicInteger();
+    Object bean = new Object() {
+      @SuppressWarnings("unused")
+      public List<Integer> getIds() {
+        calls.incrementAndGet();
+        return Arrays.asList(1, 2);
+      }
+    };
+    OgnlCache cache = new OgnlCache(1);
+    assertEquals(Boolean.TRUE, cache.evaluate("bean.ids != null and bean.ids.size > 0", Collections.singletonMap("bean", bean)));
+    assertEquals(2, calls.get());
+    assertEquals(2, cache.evaluate("bean.ids.size", Collections.singletonMap("bean", bean)));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void shouldReadPropertiesThroughConfiguredReflectorFactory() {
+    Configuration configuration = new Configuration();
+    AtomicInteger lookups = new AtomicInteger();
+    configuration.setReflectorFactory(new DefaultReflectorFactory() {
+      @Override
+      public Reflector findForClass(Class<?> type) {
+        lookups.incrementAndGet();
+        return super.findForClass(type);
+      }
+    });
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "N/A", Section.NEWS);
+    DynamicContext context = new DynamicContext(configuration, Collections.singletonMap("author", author));
+    assertEquals("cbegin@apache.org", configuration.getExpressionEngine().getValue("author.email", context.getBindings()));
+    assertEquals(1, lookups.get());
+  }
+
+  @Test
+  void shouldInvokeFailingGetterOnce() {
+    AtomicInteger calls = new AtomicInteger();
+    Object bean = new Object() {
+      @SuppressWarnings("unused")
+      public String getName() {
+        calls.incrementAndGet();
+        throw new IllegalStateException("broken");
+      }
+    };
+    BuilderException e = assertThrows(BuilderException.class,
+        () -> new OgnlCache(1).evaluate("bean.name", Collections.singletonMap("bean", bean)));
+    assertTrue(e.getCause() instanceof InvocationTargetException);
+    assertEquals(1, calls.get());
+  }
+
+}
@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class OgnlCacheTest {
+
+  private final Map<String, Object> root = Collections.singletonMap("id", 1);
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    OgnlCache cache = new OgnlCache(10);
+    assertEquals(true, cache.evaluate("id == 1", root));
+    assertEquals(true, cache.evaluate("id == 1", root));
+    assertEquals(false, cache.evaluate("id != 1", root));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.getExpressionCount());
+  }
+
+  @Test
+  void shouldEvictEarliestExpressionsWhenFull() {
+    OgnlCache cache = new OgnlCache(2);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i + 1, cache.evaluate("id + " + i, root));
+    }
+    assertEquals(2, cache.getExpressionCount());
+    assertEquals(3, cache.getEvictionCount());
+    cache.evaluate("id + 4", root);
+    assertEquals(1, cache.getHitCount());
+    cache.evaluate("id + 0", root);
+    assertEquals(6, cache.getMissCount());
+
+    cache.setSize(0);
+    assertEquals(0, cache.getExpressionCount());
+    cache.evaluate("id + 0", root);
+    assertEquals(0, cache.getExpressionCount());
+  }
+
+  @Test
+  void shouldUseCachePerConfiguration() {
+    Configuration configuration = new Configuration();
+    configuration.setExpressionCacheSize(5);
+    OgnlCache cache = ((OgnlExpressionEngine) configuration.getExpressionEngine()).getCache();
+    assertNotSame(cache, ((OgnlExpressionEngine) new Configuration().getExpressionEngine()).getCache());
+    assertEquals(5, cache.getSize());
+    configuration.setExpressionEngine(null);
+    assertEquals(5, ((OgnlExpressionEngine) configuration.getExpressionEngine()).getCache().getSize());
+  }
+
+}
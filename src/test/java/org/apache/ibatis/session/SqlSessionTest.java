@@ -16,6 +16,7 @@
 package org.apache.ibatis.session;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -28,11 +29,14 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javassist.util.proxy.Proxy;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
@@ -52,6 +56,8 @@ import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -847,4 +853,27 @@ class SqlSessionTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldWarmUpReflectorsOfMappedTypes() throws Exception {
+    Set<Class<?>> reflected = ConcurrentHashMap.newKeySet();
+    Configuration configuration;
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/builder/MapperConfig.xml")) {
+      configuration = new XMLConfigBuilder(reader).parse();
+    }
+    configuration.setReflectorFactory(new DefaultReflectorFactory() {
+      @Override
+      protected Reflector newReflector(Class<?> type) {
+        reflected.add(type);
+        return super.newReflector(type);
+      }
+    });
+    configuration.setWarmUpReflectors(true);
+    new SqlSessionFactoryBuilder().build(configuration);
+    assertTrue(reflected.contains(Author.class));
+    assertTrue(reflected.contains(Blog.class));
+    assertTrue(reflected.contains(Comment.class));
+    assertFalse(reflected.contains(String.class));
+    assertFalse(reflected.contains(HashMap.class));
+  }
+
 }
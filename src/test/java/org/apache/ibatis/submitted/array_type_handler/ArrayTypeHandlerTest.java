@@ -19,6 +19,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.io.Resources;
@@ -63,6 +65,38 @@ public class ArrayTypeHandlerTest {
     }
   }
 
+  @Test
+  public void shouldBindCollectionAsSingleArrayParameter() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      insertUsers(mapper, 3);
+
+      assertEquals(Arrays.asList("User 1", "User 3"), mapper.getNamesByIdArray(Arrays.asList(3, 1, 5)));
+    }
+  }
+
+  @Test
+  public void shouldPadInListToPowerOfTwo() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      insertUsers(mapper, 3);
+
+      assertEquals(Arrays.asList("User 1", "User 2", "User 3"), mapper.getNamesByPaddedIdList(Arrays.asList(1, 2, 3)));
+      String sql = sqlSession.getConfiguration().getMappedStatement("getNamesByPaddedIdList")
+          .getBoundSql(Collections.singletonMap("ids", Arrays.asList(1, 2, 3))).getSql();
+      assertEquals(4, sql.chars().filter(c -> c == '?').count());
+    }
+  }
+
+  private void insertUsers(Mapper mapper, int count) {
+    for (int i = 1; i <= count; i++) {
+      User user = new User();
+      user.setId(i);
+      user.setName("User " + i);
+      mapper.insert(user);
+    }
+  }
+
   @Test
   public void shouldInsertNullValue() throws Exception {
     try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
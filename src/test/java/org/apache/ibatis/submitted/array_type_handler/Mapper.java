@@ -15,6 +15,10 @@
  */
 package org.apache.ibatis.submitted.array_type_handler;
 
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+
 public interface Mapper {
 
   void insert(User user);
@@ -25,4 +29,8 @@ public interface Mapper {
    * HSQL returns NULL when asked for the cardinality of an array column with NULL value :-(
    */
   Integer getNicknameCount();
+
+  List<String> getNamesByIdArray(@Param("ids") List<Integer> ids);
+
+  List<String> getNamesByPaddedIdList(@Param("ids") List<Integer> ids);
 }
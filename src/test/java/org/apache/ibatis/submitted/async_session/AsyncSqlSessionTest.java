@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.AsyncCursor;
+import org.apache.ibatis.session.AsyncSqlSession;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncSqlSessionTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_session/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void resetDatabase() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_session/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRunStatementsInOrderOnThePool() throws Exception {
+    AsyncSqlSession session = new AsyncSqlSession(sqlSessionFactory.openSession());
+    CompletableFuture<String> threadName = session.execute(sqlSession -> Thread.currentThread().getName());
+    CompletableFuture<Integer> inserted = session.insert("insertUser", new User(6, "User6"));
+    CompletableFuture<List<User>> users = session.selectList("getUsers");
+    CompletableFuture<User> user = session.execute(sqlSession -> sqlSession.getMapper(Mapper.class).getUser(6));
+    session.commit();
+    session.close().get();
+
+    assertTrue(threadName.get().startsWith("mybatis-async-"));
+    assertEquals(1, inserted.get());
+    assertEquals(6, users.get().size());
+    assertEquals("User6", user.get().getName());
+  }
+
+  @Test
+  void shouldRunNextOperationsAfterAFailure() throws Exception {
+    AsyncSqlSession session = new AsyncSqlSession(sqlSessionFactory.openSession());
+    CompletableFuture<User> failed = session.selectOne("getUserFromMissingTable");
+    CompletableFuture<User> user = session.selectOne("getUser", 1);
+    session.close().get();
+
+    ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+    assertTrue(e.getCause() instanceof PersistenceException);
+    assertEquals("User1", user.get().getName());
+  }
+
+  @Test
+  void shouldFetchCursorOnDemand() throws Exception {
+    AsyncSqlSession session = new AsyncSqlSession(sqlSessionFactory.openSession());
+    AsyncCursor<User> cursor = session.selectCursor("getUsers");
+    assertEquals(2, cursor.fetch(2).get().size());
+
+    List<String> names = new ArrayList<>();
+    cursor.forEach(2, user -> names.add(user.getName())).get();
+    session.close().get();
+
+    assertEquals(3, names.size());
+    assertEquals("User3", names.get(0));
+    assertEquals("User5", names.get(2));
+  }
+
+  @Test
+  void shouldRequireAnExecutor() {
+    ExecutorService executorService = sqlSessionFactory.getConfiguration().getAsyncExecutorService();
+    sqlSessionFactory.getConfiguration().setAsyncPoolSize(0);
+    assertTrue(executorService.isShutdown());
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThrows(IllegalArgumentException.class, () -> new AsyncSqlSession(sqlSession));
+    } finally {
+      sqlSessionFactory.getConfiguration().setAsyncPoolSize(2);
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_insert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.StatementCounter;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkInsertTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static final StatementCounter statementCounter = new StatementCounter();
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/bulk_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addInterceptor(statementCounter);
+  }
+
+  @BeforeEach
+  void resetDatabase() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/bulk_insert/CreateDB.sql");
+    statementCounter.reset();
+  }
+
+  @Test
+  void shouldInsertInChunksAndAssignGeneratedKeys() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = Arrays.asList(new User("John"), new User("Jane"), new User("Mary"));
+      assertEquals(3, sqlSession.insertBulk("insertUser", users));
+      // bulkInsertSize is 2
+      assertEquals(2, statementCounter.getPreparedStatements());
+      for (User user : users) {
+        assertNotNull(user.getId());
+      }
+
+      List<User> saved = sqlSession.selectList("getUsers");
+      assertEquals(3, saved.size());
+      for (int i = 0; i < users.size(); i++) {
+        assertEquals(users.get(i).getId(), saved.get(i).getId());
+        assertEquals(users.get(i).getName(), saved.get(i).getName());
+      }
+    }
+  }
+
+  @Test
+  void shouldUseGivenBulkSize() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = Arrays.asList(new User("John"), new User("Jane"), new User("Mary"));
+      assertEquals(3, sqlSession.insertBulk("insertUser", users, 10));
+      assertEquals(1, statementCounter.getPreparedStatements());
+      assertEquals(3, sqlSession.<User>selectList("getUsers").size());
+    }
+  }
+
+  @Test
+  void shouldRejectNonInsertStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThrows(PersistenceException.class,
+          () -> sqlSession.insertBulk("renameUser", Arrays.asList(new User("John"))));
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CursorPrefetchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGetAllUsersFromProducerThread() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      assertTrue(cursor instanceof PrefetchingCursor);
+      assertFalse(cursor.isOpen());
+      assertEquals(-1, cursor.getCurrentIndex());
+
+      Iterator<User> iterator = cursor.iterator();
+      assertTrue(iterator.hasNext());
+      assertTrue(cursor.isOpen());
+      assertEquals(-1, cursor.getCurrentIndex());
+
+      List<String> names = new ArrayList<>();
+      while (iterator.hasNext()) {
+        names.add(iterator.next().getName());
+        assertEquals(names.size() - 1, cursor.getCurrentIndex());
+      }
+      assertEquals(5, names.size());
+      assertEquals("User1", names.get(0));
+      assertEquals("User5", names.get(4));
+      assertFalse(cursor.isOpen());
+      assertTrue(cursor.isConsumed());
+      assertThrows(NoSuchElementException.class, iterator::next);
+    }
+  }
+
+  @Test
+  void shouldStopProducerWhenClosedEarly() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      Iterator<User> iterator = cursor.iterator();
+      assertEquals("User1", iterator.next().getName());
+
+      cursor.close();
+      assertFalse(cursor.isOpen());
+      assertFalse(cursor.isConsumed());
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  void shouldStreamUsersInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try (Stream<User> users = sqlSession.selectStream("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers")) {
+        assertEquals(15, users.mapToInt(User::getId).sum());
+      }
+      Cursor<User> cursor = sqlSession.selectCursor("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers");
+      assertEquals(4, cursor.nextBatch(4).size());
+      assertEquals(1, cursor.nextBatch(4).size());
+      assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldNotPrefetchWhenNestedResultMapHasNestedQueries() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.selectCursor("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsersWithNestedSelect");
+      assertFalse(cursor instanceof PrefetchingCursor);
+      Iterator<User> iterator = cursor.iterator();
+      assertEquals("User1", iterator.next().getName());
+      assertEquals("User2", iterator.next().getName());
+    }
+  }
+
+  @Test
+  void shouldApplyRowBoundsAndKeepNullRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getNullUsers(new RowBounds(1, 2));
+      Iterator<User> iterator = cursor.iterator();
+
+      User user = iterator.next();
+      assertEquals("Kate", user.getName());
+      assertEquals(1, cursor.getCurrentIndex());
+      assertNull(iterator.next());
+      assertEquals(2, cursor.getCurrentIndex());
+      assertFalse(iterator.hasNext());
+      assertTrue(cursor.isConsumed());
+    }
+  }
+
+}
@@ -34,9 +34,12 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class CursorSimpleTest {
 
@@ -473,4 +476,42 @@ class CursorSimpleTest {
       assertTrue(cursor.isConsumed());
     }
   }
+
+  @Test
+  void shouldFetchInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      Iterator<User> iterator = cursor.iterator();
+      assertEquals("User1", iterator.next().getName());
+
+      List<User> batch = cursor.nextBatch(3);
+      assertEquals(3, batch.size());
+      assertEquals("User2", batch.get(0).getName());
+      assertEquals("User4", batch.get(2).getName());
+      assertEquals(3, cursor.getCurrentIndex());
+
+      // the list is reused
+      Assertions.assertSame(batch, cursor.nextBatch(3));
+      assertEquals(1, batch.size());
+      assertEquals("User5", batch.get(0).getName());
+      assertTrue(cursor.isConsumed());
+      assertTrue(cursor.nextBatch(3).isEmpty());
+    }
+  }
+
+  @Test
+  void shouldStreamUsersAndCloseCursor() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<String> names;
+      try (Stream<User> users = sqlSession.getMapper(Mapper.class).streamAllUsers(new RowBounds(1, 3))) {
+        names = users.map(User::getName).collect(Collectors.toList());
+      }
+      assertEquals(Arrays.asList("User2", "User3", "User4"), names);
+
+      Cursor<User> cursor = sqlSession.selectCursor("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers");
+      cursor.stream().close();
+      assertFalse(cursor.isConsumed());
+      Assertions.assertThrows(IllegalStateException.class, cursor::iterator);
+    }
+  }
 }
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.submitted.cursor_simple;
 
+import java.util.stream.Stream;
+
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.cursor.Cursor;
@@ -24,6 +26,9 @@ public interface Mapper {
 
   Cursor<User> getAllUsers();
 
+  @Select("select * from users order by id")
+  Stream<User> streamAllUsers(RowBounds rowBounds);
+
   @Select({
     "select null id, null name from (values (0))",
     "union all",
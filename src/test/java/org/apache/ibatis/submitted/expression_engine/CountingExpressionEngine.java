@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.expression_engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.scripting.xmltags.OgnlExpressionEngine;
+
+public class CountingExpressionEngine extends OgnlExpressionEngine {
+
+  private final AtomicInteger evaluations = new AtomicInteger();
+
+  @Override
+  public Object getValue(String expression, Object root) {
+    evaluations.incrementAndGet();
+    return super.getValue(expression, root);
+  }
+
+  public int getEvaluations() {
+    return evaluations.get();
+  }
+
+}
@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.expression_engine;
+
+import org.apache.ibatis.scripting.xmltags.ExpressionEngine;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+public class CountingLanguageDriver extends XMLLanguageDriver {
+
+  private final CountingExpressionEngine expressionEngine = new CountingExpressionEngine();
+
+  @Override
+  protected ExpressionEngine getExpressionEngine(Configuration configuration) {
+    return expressionEngine;
+  }
+
+  public CountingExpressionEngine getCountingExpressionEngine() {
+    return expressionEngine;
+  }
+
+}
@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.expression_engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ExpressionEngineTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/expression_engine/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/expression_engine/CreateDB.sql");
+  }
+
+  @Test
+  void shouldEvaluateExpressionsWithConfiguredEngine() {
+    CountingExpressionEngine engine = (CountingExpressionEngine) sqlSessionFactory.getConfiguration().getExpressionEngine();
+    int evaluations = engine.getEvaluations();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<String> names = sqlSession.selectList("org.apache.ibatis.submitted.expression_engine.Mapper.findNames",
+          Collections.singletonMap("name", "User2"));
+      assertEquals(Collections.singletonList("User2"), names);
+    }
+    assertTrue(engine.getEvaluations() > evaluations);
+  }
+
+  @Test
+  void shouldEvaluateExpressionsWithEngineOfLanguageDriver() {
+    CountingExpressionEngine configured = (CountingExpressionEngine) sqlSessionFactory.getConfiguration().getExpressionEngine();
+    CountingExpressionEngine engine = ((CountingLanguageDriver) sqlSessionFactory.getConfiguration()
+        .getLanguageDriver(CountingLanguageDriver.class)).getCountingExpressionEngine();
+    int configuredEvaluations = configured.getEvaluations();
+    int evaluations = engine.getEvaluations();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<String> names = sqlSession.selectList("org.apache.ibatis.submitted.expression_engine.Mapper.findNamesByIds",
+          Collections.singletonMap("ids", Arrays.asList(1, 3)));
+      assertEquals(Arrays.asList("User1", "User3"), names);
+    }
+    assertEquals(evaluations + 1, engine.getEvaluations());
+    assertEquals(configuredEvaluations, configured.getEvaluations());
+  }
+
+}
@@ -0,0 +1,50 @@
+--
+--    Copyright 2009-2019 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table order_lines if exists;
+drop table orders if exists;
+drop table customers if exists;
+
+create table customers (
+  id int,
+  name varchar(20)
+);
+
+create table orders (
+  id int,
+  customer_id int
+);
+
+create table order_lines (
+  id int,
+  order_id int,
+  item varchar(20)
+);
+
+insert into customers (id, name) values (1, 'John');
+insert into customers (id, name) values (2, 'Jane');
+insert into customers (id, name) values (3, 'Mary');
+
+insert into orders (id, customer_id) values (1, 1);
+insert into orders (id, customer_id) values (2, 2);
+insert into orders (id, customer_id) values (3, 1);
+insert into orders (id, customer_id) values (4, null);
+insert into orders (id, customer_id) values (5, 3);
+
+insert into order_lines (id, order_id, item) values (1, 1, 'Pen');
+insert into order_lines (id, order_id, item) values (2, 1, 'Paper');
+insert into order_lines (id, order_id, item) values (3, 2, 'Ink');
+insert into order_lines (id, order_id, item) values (4, 5, 'Stamp');
@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_select_batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.StatementCounter;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NestedSelectBatchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static final StatementCounter statementCounter = new StatementCounter();
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_select_batch/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addInterceptor(statementCounter);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/nested_select_batch/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetCounter() {
+    statementCounter.reset();
+  }
+
+  @Test
+  void shouldLoadNestedSelectsInBatches() {
+    sqlSessionFactory.getConfiguration().setNestedSelectBatchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+      assertOrders(orders);
+      // 1 for orders, 2 for 3 customers and 3 for the lines of 5 orders
+      assertEquals(6, statementCounter.getPreparedStatements());
+    }
+  }
+
+  @Test
+  void shouldLoadNestedSelectsPerRowWhenBatchingIsDisabled() {
+    sqlSessionFactory.getConfiguration().setNestedSelectBatchSize(0);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+      assertOrders(orders);
+      // 1 for orders, 3 for distinct customers and 5 for lines
+      assertEquals(9, statementCounter.getPreparedStatements());
+    } finally {
+      sqlSessionFactory.getConfiguration().setNestedSelectBatchSize(2);
+    }
+  }
+
+  @Test
+  void shouldLoadNestedSelectsInParallel() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setNestedSelectBatchSize(0);
+    configuration.setNestedSelectParallelism(4);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+      assertOrders(orders);
+      // 1 for orders, 3 for distinct customers and 5 for lines
+      assertEquals(9, statementCounter.getPreparedStatements());
+      assertTrue(statementCounter.getThreadNames().stream().anyMatch(name -> name.startsWith("mybatis-nested-select-")));
+    } finally {
+      ExecutorService executorService = configuration.getNestedSelectExecutorService();
+      configuration.setNestedSelectParallelism(0);
+      configuration.setNestedSelectBatchSize(2);
+      assertTrue(executorService.isShutdown());
+      assertNull(configuration.getNestedSelectExecutorService());
+    }
+  }
+
+  @Test
+  void shouldLoadBatchedNestedSelectsInParallel() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setNestedSelectParallelism(4);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+      assertOrders(orders);
+      assertEquals(6, statementCounter.getPreparedStatements());
+      assertTrue(statementCounter.getThreadNames().stream().anyMatch(name -> name.startsWith("mybatis-nested-select-")));
+    } finally {
+      ExecutorService executorService = configuration.getNestedSelectExecutorService();
+      configuration.close();
+      assertTrue(executorService.isShutdown());
+      configuration.setNestedSelectParallelism(0);
+    }
+  }
+
+  private void assertOrders(List<Order> orders) {
+    assertEquals(5, orders.size());
+    assertEquals("John", orders.get(0).getCustomer().getName());
+    assertEquals("Jane", orders.get(1).getCustomer().getName());
+    assertEquals("John", orders.get(2).getCustomer().getName());
+    assertNull(orders.get(3).getCustomer());
+    assertEquals("Mary", orders.get(4).getCustomer().getName());
+
+    assertEquals(2, orders.get(0).getLines().size());
+    assertEquals("Pen", orders.get(0).getLines().get(0).getItem());
+    assertEquals("Paper", orders.get(0).getLines().get(1).getItem());
+    assertEquals(1, orders.get(1).getLines().size());
+    assertTrue(orders.get(2).getLines().isEmpty());
+    assertTrue(orders.get(3).getLines().isEmpty());
+    assertEquals("Stamp", orders.get(4).getLines().get(0).getItem());
+  }
+
+}
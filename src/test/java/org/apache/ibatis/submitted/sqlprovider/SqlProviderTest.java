@@ -31,6 +31,7 @@ import java.util.Map;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.annotations.DeleteProvider;
+import org.apache.ibatis.annotations.Lang;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.binding.MapperMethod;
@@ -38,6 +39,8 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.annotation.ProviderContext;
 import org.apache.ibatis.builder.annotation.ProviderSqlSource;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -927,6 +930,44 @@ class SqlProviderTest {
     }
   }
 
+  @Test
+  void shouldReuseCachedSqlSourceForSameProvidedSql() throws NoSuchMethodException {
+    Configuration configuration = new Configuration();
+    configuration.setProviderSqlSourceCacheSize(2);
+    Class<?> mapperType = CachedSqlSourceMapper.class;
+    Method mapperMethod = mapperType.getMethod("oneArgument", Integer.class);
+    ProviderSqlSource sqlSource = new ProviderSqlSource(configuration,
+        mapperMethod.getAnnotation(SelectProvider.class), mapperType, mapperMethod);
+    CountingLanguageDriver driver = (CountingLanguageDriver) configuration.getLanguageDriver(CountingLanguageDriver.class);
+
+    assertEquals("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS", sqlSource.getBoundSql(1).getSql());
+    sqlSource.getBoundSql(1);
+    sqlSource.getBoundSql(2);
+    assertEquals(2, driver.created);
+
+    // the cache is full, so new SQL is parsed on every call
+    assertEquals("SELECT 3 FROM INFORMATION_SCHEMA.SYSTEM_USERS", sqlSource.getBoundSql(3).getSql());
+    sqlSource.getBoundSql(3);
+    sqlSource.getBoundSql(2);
+    assertEquals(4, driver.created);
+  }
+
+  interface CachedSqlSourceMapper {
+    @Lang(CountingLanguageDriver.class)
+    @SelectProvider(type = StaticMethodSqlProviderMapper.SqlProvider.class, method = "oneArgument")
+    int oneArgument(Integer value);
+  }
+
+  public static class CountingLanguageDriver extends XMLLanguageDriver {
+    private int created;
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+      created++;
+      return super.createSqlSource(configuration, script, parameterType);
+    }
+  }
+
   @Test
   void shouldPassedDatabaseIdToProviderMethod() {
     try (SqlSession sqlSession = sqlSessionFactory.openSession()){
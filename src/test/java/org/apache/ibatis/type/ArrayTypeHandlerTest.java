@@ -22,6 +22,7 @@ import org.mockito.Mock;
 import java.sql.Array;
 import java.sql.Connection;
 import java.sql.Types;
+import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -59,6 +60,33 @@ class ArrayTypeHandlerTest extends BaseTypeHandlerTest {
     verify(array).free();
   }
     
+  @Test
+  public void shouldSetCollectionParameter() throws Exception {
+    Connection connection = mock(Connection.class);
+    when(ps.getConnection()).thenReturn(connection);
+
+    Array array = mock(Array.class);
+    when(connection.createArrayOf(anyString(), any(Object[].class))).thenReturn(array);
+
+    TYPE_HANDLER.setParameter(ps, 1, Arrays.asList(null, 1, 2), JdbcType.ARRAY);
+    verify(connection).createArrayOf("INTEGER", new Object[] { null, 1, 2 });
+    verify(ps).setArray(1, array);
+    verify(array).free();
+  }
+
+  @Test
+  public void shouldSetPrimitiveArrayParameter() throws Exception {
+    Connection connection = mock(Connection.class);
+    when(ps.getConnection()).thenReturn(connection);
+
+    Array array = mock(Array.class);
+    when(connection.createArrayOf(anyString(), any(Object[].class))).thenReturn(array);
+
+    TYPE_HANDLER.setParameter(ps, 1, new long[] { 1L, 2L }, JdbcType.ARRAY);
+    verify(connection).createArrayOf("BIGINT", new Object[] { 1L, 2L });
+    verify(ps).setArray(1, array);
+  }
+
   @Test
   public void shouldSetNullParameter() throws Exception {
     TYPE_HANDLER.setParameter(ps, 1, null, JdbcType.ARRAY);